@@ -0,0 +1,24 @@
+package com.volunteerhub.authentication.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Kết quả verify một JWT, bất biến nên có thể cache và dùng chung giữa các request.
+ */
+@Value
+@Builder
+public class JwtPrincipal {
+    UUID userId;
+    List<String> roles;
+    String tokenType;
+    Instant expiresAt;
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,7 @@
+package com.volunteerhub.authentication.model;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
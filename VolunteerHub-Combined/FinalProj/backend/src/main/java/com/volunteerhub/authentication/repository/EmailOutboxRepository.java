@@ -0,0 +1,9 @@
+package com.volunteerhub.authentication.repository;
+
+import com.volunteerhub.authentication.model.EmailOutbox;
+import com.volunteerhub.authentication.model.EmailOutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    long countByStatus(EmailOutboxStatus status);
+}
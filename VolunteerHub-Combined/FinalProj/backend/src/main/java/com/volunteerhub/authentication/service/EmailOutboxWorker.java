@@ -0,0 +1,249 @@
+package com.volunteerhub.authentication.service;
+
+import com.volunteerhub.authentication.model.EmailOutbox;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gửi email trong email_outbox:
+ * <ul>
+ *     <li>nhận dòng đến hạn bằng FOR UPDATE SKIP LOCKED (nhiều node không gửi trùng), giữ chỗ bằng claim-lease</li>
+ *     <li>mỗi batch gửi qua một kết nối SMTP, tối đa app.email.concurrency batch song song trên emailExecutor</li>
+ *     <li>giới hạn app.email.rate-per-second mỗi node</li>
+ *     <li>lỗi thì retry với backoff luỹ thừa, quá app.email.max-attempts thì chuyển DEAD</li>
+ *     <li>dòng SENT / DEAD quá sent-retention / dead-retention được xoá theo lô</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxWorker {
+    private static final String CLAIM_SQL = """
+            UPDATE email_outbox SET next_attempt_at = now() + make_interval(secs => ?)
+            WHERE email_id IN (
+                SELECT email_id FROM email_outbox
+                WHERE status = 'PENDING' AND next_attempt_at <= now()
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING email_id, recipient, subject, body, attempts
+            """;
+
+    private static final String SENT_SQL = """
+            UPDATE email_outbox SET status = 'SENT', sent_at = now(), attempts = attempts + 1, last_error = NULL
+            WHERE email_id = ?
+            """;
+
+    private static final String FAILED_SQL = """
+            UPDATE email_outbox
+            SET attempts = attempts + 1,
+                last_error = ?,
+                next_attempt_at = now() + make_interval(secs => ?),
+                status = CASE WHEN attempts + 1 >= ? THEN 'DEAD' ELSE 'PENDING' END
+            WHERE email_id = ?
+            """;
+
+    // xoá theo lô nhỏ để không giữ lock lâu trên bảng đang được worker ghi
+    private static final String PURGE_SQL = """
+            DELETE FROM email_outbox
+            WHERE email_id IN (
+                SELECT email_id FROM email_outbox
+                WHERE status = ? AND created_at < now() - make_interval(secs => ?)
+                LIMIT ?
+            )
+            """;
+    private static final int PURGE_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JavaMailSender mailSender;
+    private final EmailService emailService;
+    private final TaskExecutor emailExecutor; // ExecutorConfiguration
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.email.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.email.concurrency:4}")
+    private int concurrency;
+
+    @Value("${app.email.rate-per-second:10}")
+    private int ratePerSecond;
+
+    @Value("${app.email.poll-ms:1000}")
+    private long pollMs;
+
+    @Value("${app.email.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.email.backoff-base:30s}")
+    private Duration backoffBase;
+
+    @Value("${app.email.backoff-max:1h}")
+    private Duration backoffMax;
+
+    @Value("${app.email.claim-lease:5m}")
+    private Duration claimLease;
+
+    @Value("${app.email.sent-retention:7d}")
+    private Duration sentRetention;
+
+    @Value("${app.email.dead-retention:30d}")
+    private Duration deadRetention;
+
+    @Scheduled(initialDelay = 5_000, fixedDelayString = "${app.email.poll-ms:1000}")
+    public void dispatch() {
+        // rate limit: mỗi lượt chỉ nhận tối đa số mail được phép gửi trong một chu kỳ poll
+        int budget = (int) Math.max(1, ratePerSecond * pollMs / 1000);
+
+        List<EmailOutbox> claimed;
+        try {
+            claimed = claim(Math.min(budget, batchSize * concurrency));
+        } catch (Exception e) {
+            log.error("Cannot claim email outbox rows", e);
+            return;
+        }
+        if (claimed.isEmpty()) return;
+
+        int chunkSize = Math.max(1, (claimed.size() + concurrency - 1) / concurrency);
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        try {
+            for (int i = 0; i < claimed.size(); i += chunkSize) {
+                List<EmailOutbox> chunk = claimed.subList(i, Math.min(i + chunkSize, claimed.size()));
+                batches.add(CompletableFuture.runAsync(() -> sendBatch(chunk), emailExecutor));
+            }
+        } catch (Exception e) {
+            // executor đầy: các dòng chưa gửi sẽ được nhận lại khi hết claim-lease
+            log.warn("Email executor rejected a batch: {}", e.getMessage());
+        }
+
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @Scheduled(initialDelay = 60_000, fixedDelayString = "${app.email.purge-ms:3600000}")
+    public void purge() {
+        try {
+            int sent = purge("SENT", sentRetention);
+            int dead = purge("DEAD", deadRetention);
+            if (sent + dead > 0) {
+                log.info("Purged {} sent and {} dead emails from outbox", sent, dead);
+            }
+        } catch (Exception e) {
+            log.error("Cannot purge email outbox", e);
+        }
+    }
+
+    private int purge(String status, Duration retention) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, status, retention.toSeconds(), PURGE_BATCH);
+            total += deleted;
+        } while (deleted == PURGE_BATCH);
+        return total;
+    }
+
+    private List<EmailOutbox> claim(int limit) {
+        return jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> EmailOutbox.builder()
+                        .emailId(rs.getLong("email_id"))
+                        .recipient(rs.getString("recipient"))
+                        .subject(rs.getString("subject"))
+                        .body(rs.getString("body"))
+                        .attempts(rs.getInt("attempts"))
+                        .build(),
+                claimLease.toSeconds(), limit);
+    }
+
+    private void sendBatch(List<EmailOutbox> mails) {
+        Map<MimeMessage, EmailOutbox> byMessage = new IdentityHashMap<>();
+        Map<EmailOutbox, Exception> failures = new IdentityHashMap<>();
+
+        for (EmailOutbox mail : mails) {
+            try {
+                byMessage.put(emailService.createHtmlMessage(mail.getRecipient(), mail.getSubject(), mail.getBody()), mail);
+            } catch (Exception e) {
+                failures.put(mail, e);
+            }
+        }
+
+        if (!byMessage.isEmpty()) {
+            send(byMessage, failures);
+        }
+
+        List<Object[]> sent = new ArrayList<>();
+        for (EmailOutbox mail : mails) {
+            if (!failures.containsKey(mail)) sent.add(new Object[]{mail.getEmailId()});
+        }
+        if (!sent.isEmpty()) {
+            jdbcTemplate.batchUpdate(SENT_SQL, sent);
+            meterRegistry.counter("email.outbox.sent").increment(sent.size());
+        }
+        if (!failures.isEmpty()) {
+            markFailed(failures);
+        }
+    }
+
+    private void send(Map<MimeMessage, EmailOutbox> byMessage, Map<EmailOutbox, Exception> failures) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            // một lần send nhiều message = một kết nối SMTP cho cả batch
+            mailSender.send(byMessage.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                byMessage.values().forEach(mail -> failures.put(mail, e));
+            }
+            e.getFailedMessages().forEach((message, error) -> {
+                EmailOutbox mail = byMessage.get(message);
+                if (mail != null) failures.put(mail, error);
+            });
+        } catch (MailException e) {
+            byMessage.values().forEach(mail -> failures.put(mail, e));
+        } finally {
+            sample.stop(meterRegistry.timer("email.outbox.batch"));
+        }
+    }
+
+    private void markFailed(Map<EmailOutbox, Exception> failures) {
+        List<Object[]> rows = new ArrayList<>(failures.size());
+        failures.forEach((mail, error) -> {
+            int attempts = mail.getAttempts() + 1;
+            boolean dead = attempts >= maxAttempts;
+            if (dead) {
+                log.error("Email {} to {} moved to dead letter after {} attempts: {}",
+                        mail.getEmailId(), mail.getRecipient(), attempts, error.getMessage());
+                meterRegistry.counter("email.outbox.dead").increment();
+            } else {
+                log.warn("Email {} to {} failed (attempt {}): {}",
+                        mail.getEmailId(), mail.getRecipient(), attempts, error.getMessage());
+                meterRegistry.counter("email.outbox.failed").increment();
+            }
+            rows.add(new Object[]{String.valueOf(error.getMessage()), backoffSeconds(attempts), maxAttempts, mail.getEmailId()});
+        });
+        jdbcTemplate.batchUpdate(FAILED_SQL, rows);
+    }
+
+    /**
+     * base * 2^(attempts - 1), chặn trên bởi backoff-max, lệch ngẫu nhiên ±20% để các mail lỗi cùng lúc không retry dồn cục.
+     */
+    private double backoffSeconds(int attempts) {
+        double seconds = backoffBase.toSeconds() * Math.pow(2, Math.min(attempts - 1, 30));
+        seconds = Math.min(seconds, backoffMax.toSeconds());
+        return seconds * ThreadLocalRandom.current().nextDouble(0.8, 1.2);
+    }
+}
@@ -1,5 +1,9 @@
 package com.volunteerhub.authentication.service;
 
+import com.volunteerhub.authentication.model.EmailOutbox;
+import com.volunteerhub.authentication.repository.EmailOutboxRepository;
+import com.volunteerhub.ultis.SnowflakeIdGenerator;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.AllArgsConstructor;
 import org.springframework.mail.SimpleMailMessage;
@@ -12,6 +16,8 @@ import org.springframework.stereotype.Service;
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final SnowflakeIdGenerator idGenerator;
 
     public void sendSimpleMail(String to, String subject, String content) {
         SimpleMailMessage message = new SimpleMailMessage();
@@ -22,15 +28,32 @@ public class EmailService {
     }
 
     public void sendHtmlMail(String to, String subject, String html) {
-        MimeMessage message = mailSender.createMimeMessage();
         try {
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(html, true); // bật HTML
-            mailSender.send(message);
+            mailSender.send(createHtmlMessage(to, subject, html));
         } catch (Exception e) {
             throw new RuntimeException("Failed to send email", e);
         }
     }
+
+    /**
+     * Ghi vào email_outbox trong transaction hiện tại, EmailOutboxWorker gửi sau khi commit.
+     * Transaction rollback thì mail cũng không được gửi.
+     */
+    public void enqueueHtmlMail(String to, String subject, String html) {
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .emailId(idGenerator.nextId())
+                .recipient(to)
+                .subject(subject)
+                .body(html)
+                .build());
+    }
+
+    public MimeMessage createHtmlMessage(String to, String subject, String html) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(html, true); // bật HTML
+        return message;
+    }
 }
@@ -3,13 +3,23 @@ package com.volunteerhub.authentication.service;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.nimbusds.jwt.JWTClaimsSet;
+import com.volunteerhub.authentication.dto.JwtPrincipal;
 import com.volunteerhub.ultis.exception.JwtException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +36,43 @@ public class JwtService {
     @Value("${security.app.jwtRefreshExpirationMs}")
     private int jwtRefreshExpirationMs;
 
+    @Value("${security.app.jwtCacheSize:100000}")
+    private long jwtCacheSize;
+
+    // MACSigner/MACVerifier thread-safe, tạo một lần thay vì mỗi request
+    private MACSigner signer;
+    private MACVerifier verifier;
+
+    // key = SHA-256(token), entry hết hạn đúng lúc token hết hạn
+    private Cache<String, JwtPrincipal> verified;
+
+    @PostConstruct
+    public void init() throws JOSEException {
+        byte[] secret = jwtSecret.getBytes(StandardCharsets.UTF_8);
+        this.signer = new MACSigner(secret);
+        this.verifier = new MACVerifier(secret);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(jwtCacheSize)
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                        Duration ttl = Duration.between(Instant.now(), principal.getExpiresAt());
+                        return Math.max(ttl.toNanos(), 0L);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     // PUBLIC
 
     public String generateAccessToken(UUID userId, List<String> roles) {
@@ -59,41 +106,42 @@ public class JwtService {
         return signClaims(claims);
     }
 
-    public boolean validateToken(String token) {
-        try {
-            parseAndValidate(token);
-            return true;
-        } catch (JwtException ex) {
-            return false;
+    /**
+     * Parse + verify chữ ký + kiểm tra hạn một lần, kết quả được cache theo hash của token.
+     */
+    public Optional<JwtPrincipal> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        String key = hash(token);
+        JwtPrincipal principal = verified.getIfPresent(key);
+        if (principal == null) {
+            try {
+                principal = toPrincipal(parseAndValidate(token));
+            } catch (JwtException e) {
+                return Optional.empty();
+            }
+            verified.put(key, principal);
         }
+
+        return principal.isExpired() ? Optional.empty() : Optional.of(principal);
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
     public Optional<List<String>> rolesFromToken(String token) {
-        try {
-            JWTClaimsSet claims = parseAndValidate(token);
-            return Optional.ofNullable(claims.getStringListClaim("roles"));
-        } catch (JwtException | ParseException e) {
-            return Optional.empty();
-        }
+        return verify(token).map(JwtPrincipal::getRoles).filter(roles -> !roles.isEmpty());
     }
 
     public Optional<String> getTokenType(String token) {
-        try {
-            JWTClaimsSet claims = parseAndValidate(token);
-            return Optional.ofNullable(claims.getStringClaim("token_type"));
-        } catch (JwtException | ParseException e) {
-            return Optional.empty();
-        }
+        return verify(token).map(JwtPrincipal::getTokenType);
     }
 
     public Optional<UUID> getUserIdFromToken(String token) {
-        try {
-            JWTClaimsSet claims = parseAndValidate(token);
-            String id = claims.getStringClaim("user_id");
-            return Optional.of(UUID.fromString(id));
-        } catch (Exception e) {
-            return Optional.empty();
-        }
+        return verify(token).map(JwtPrincipal::getUserId);
     }
 
     // PRIVATE UTILS
@@ -101,7 +149,7 @@ public class JwtService {
     private JWTClaimsSet parseAndValidate(String token) {
         JWTClaimsSet claims = parse(token);
 
-        if (claims.getExpirationTime().before(new Date())) {
+        if (claims.getExpirationTime() == null || claims.getExpirationTime().before(new Date())) {
             throw new JwtException("Token expired");
         }
 
@@ -111,9 +159,7 @@ public class JwtService {
     private JWTClaimsSet parse(String token) {
         try {
             JWSObject jws = JWSObject.parse(token);
-            boolean verified = jws.verify(new MACVerifier(jwtSecret.getBytes(StandardCharsets.UTF_8)));
-
-            if (!verified) {
+            if (!jws.verify(verifier)) {
                 throw new JwtException("Signature invalid");
             }
 
@@ -123,13 +169,36 @@ public class JwtService {
         }
     }
 
+    private JwtPrincipal toPrincipal(JWTClaimsSet claims) {
+        try {
+            List<String> roles = claims.getStringListClaim("roles");
+            return JwtPrincipal.builder()
+                    .userId(UUID.fromString(claims.getStringClaim("user_id")))
+                    .roles(roles != null ? List.copyOf(roles) : List.of())
+                    .tokenType(claims.getStringClaim("token_type"))
+                    .expiresAt(claims.getExpirationTime().toInstant())
+                    .build();
+        } catch (ParseException | RuntimeException e) {
+            throw new JwtException("Token payload invalid", e);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private String signClaims(JWTClaimsSet claims) {
         try {
             JWSObject jws = new JWSObject(
                     new JWSHeader(JWSAlgorithm.HS256),
                     new Payload(claims.toJSONObject())
             );
-            jws.sign(new MACSigner(jwtSecret.getBytes(StandardCharsets.UTF_8)));
+            jws.sign(signer);
             return jws.serialize();
         } catch (JOSEException e) {
             throw new JwtException("Token signing failed", e);
@@ -1,6 +1,7 @@
 package com.volunteerhub.authentication.service;
 
 import com.volunteerhub.authentication.ultis.exception.LoginException;
+import com.volunteerhub.authentication.dto.JwtPrincipal;
 import com.volunteerhub.authentication.dto.request.LoginRequest;
 import com.volunteerhub.authentication.dto.response.LoginResponse;
 import com.volunteerhub.authentication.dto.response.RefreshResponse;
@@ -53,18 +54,15 @@ public class LoginService {
             throw new LoginException("Missing refresh token");
         }
 
-        String tokenType = jwtService.getTokenType(refreshToken).orElseThrow(() ->
-                new LoginException("Invalid token type")
+        JwtPrincipal principal = jwtService.verify(refreshToken).orElseThrow(() ->
+                new LoginException("Invalid refresh token")
         );
 
-        if (!jwtService.validateToken(refreshToken) ||
-                !"refresh_token".equals(tokenType)) {
+        if (!"refresh_token".equals(principal.getTokenType())) {
             throw new LoginException("Invalid refresh token");
         }
 
-        UUID userId = jwtService.getUserIdFromToken(refreshToken).orElseThrow(() ->
-                new LoginException("Invalid token payload")
-        );
+        UUID userId = principal.getUserId();
 
         UserAuth userAuth = userAuthRepository.findById(userId).orElseThrow(() ->
                 new LoginException("User not found")
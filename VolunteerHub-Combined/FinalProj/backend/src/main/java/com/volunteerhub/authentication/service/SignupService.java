@@ -14,7 +14,7 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -22,7 +22,6 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -31,7 +30,7 @@ public class SignupService {
     private final UserAuthRepository userAuthRepository;
     private final UserProfileRepository userProfileRepository;
     private final EmailService emailService;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate redisTemplate;
     private final PasswordEncoder passwordEncoder;
 
     @Value("${app.verify-path}")
@@ -98,7 +97,7 @@ public class SignupService {
         String hashed = TokenUtil.sha256(rawToken);
         String key = "verify:" + hashed;
 
-        String userIdStr = (String) redisTemplate.opsForValue().get(key);
+        String userIdStr = redisTemplate.opsForValue().get(key);
         if (userIdStr == null) {
             throw new VerificationException("Invalid or expired token");
         }
@@ -155,7 +154,7 @@ public class SignupService {
 
     private void sendVerificationEmail(UUID userId, String email) {
         String indexKey = "verify_index:" + userId;
-        String oldTokenHash = (String) redisTemplate.opsForValue().get(indexKey);
+        String oldTokenHash = redisTemplate.opsForValue().get(indexKey);
 
         if (oldTokenHash != null) {
             redisTemplate.delete("verify:" + oldTokenHash);
@@ -171,16 +170,10 @@ public class SignupService {
         String verifyLink = String.format("%s%s?token=%s", apiUrl, verifyPath,
                 URLEncoder.encode(rawToken, StandardCharsets.UTF_8));
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                emailService.sendHtmlMail(
-                        email,
-                        "Verify your account",
-                        verifyLink
-                );
-            } catch (Exception e) {
-                log.error("Error while sending verification email", e);
-            }
-        });
+        emailService.enqueueHtmlMail(
+                email,
+                "Verify your account",
+                verifyLink
+        );
     }
 }
@@ -1,39 +1,65 @@
 package com.volunteerhub.community.configuration.graphql;
 
 
-import org.dataloader.*;
+import com.volunteerhub.community.dto.redis.LikeTarget;
+import com.volunteerhub.community.dto.redis.LikedKey;
+import com.volunteerhub.community.model.UserProfileMini;
+import com.volunteerhub.community.service.cache_service.UserProfileMiniCache;
+import com.volunteerhub.community.service.redis_service.RedisCountService;
+import com.volunteerhub.community.service.redis_service.RedisLikeService;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.graphql.execution.BatchLoaderRegistry;
 import reactor.core.publisher.Mono;
 
-import java.util.*;
+import java.util.UUID;
 
 @Configuration
 public class BatchLoaderConfig {
 
-    public BatchLoaderConfig(BatchLoaderRegistry registry) {
+    public BatchLoaderConfig(BatchLoaderRegistry registry,
+                             RedisCountService redisCountService,
+                             RedisLikeService redisLikeService,
+                             UserProfileMiniCache userProfileMiniCache) {
+        // postId -> số comment (MGET comments:post:*)
         registry
                 .forTypePair(Long.class, Integer.class)
                 .withName("commentCountLoader")
-                .registerMappedBatchLoader((postIds, env) -> {
-                    // postIds: Set<Long>
-                    Map<Long, Integer> map = new HashMap<>();
-                    for (Long id : postIds) {
-                        map.put(id, -1);  // default –1 cho mỗi postId
-                    }
-                    return Mono.just(map);
-                });
+                .registerMappedBatchLoader((postIds, env) ->
+                        Mono.fromCallable(() -> redisCountService.commentCounts(postIds)));
 
+        // (tableType, targetId) -> số like (pipelined SCARD likes:*)
         registry
-                .forTypePair(Long.class, Integer.class)
+                .forTypePair(LikeTarget.class, Integer.class)
                 .withName("likeCountLoader")
-                .registerMappedBatchLoader((postIds, env) -> {
-                    // postIds: Set<Long>
-                    Map<Long, Integer> map = new HashMap<>();
-                    for (Long id : postIds) {
-                        map.put(id, -11312323);  // default –1 cho mỗi postId
-                    }
-                    return Mono.just(map);
-                });
+                .registerMappedBatchLoader((targets, env) ->
+                        Mono.fromCallable(() -> redisCountService.likeCounts(targets)));
+
+        // eventId -> số thành viên (pipelined SCARD members:event:*)
+        registry
+                .forTypePair(Long.class, Integer.class)
+                .withName("memberCountLoader")
+                .registerMappedBatchLoader((eventIds, env) ->
+                        Mono.fromCallable(() -> redisCountService.memberCounts(eventIds)));
+
+        // eventId -> số bài viết (MGET posts:event:*)
+        registry
+                .forTypePair(Long.class, Integer.class)
+                .withName("postCountLoader")
+                .registerMappedBatchLoader((eventIds, env) ->
+                        Mono.fromCallable(() -> redisCountService.postCounts(eventIds)));
+
+        // creatorId -> UserProfileMini (near cache, miss gom thành một WHERE user_id IN)
+        registry
+                .forTypePair(UUID.class, UserProfileMini.class)
+                .withName("creatorInfoLoader")
+                .registerMappedBatchLoader((userIds, env) ->
+                        Mono.fromCallable(() -> userProfileMiniCache.getAll(userIds)));
+
+        // (userId, tableType, targetId) -> đã like chưa (pipelined SISMEMBER, miss thì một query IN)
+        registry
+                .forTypePair(LikedKey.class, Boolean.class)
+                .withName("isLikedLoader")
+                .registerMappedBatchLoader((keys, env) ->
+                        Mono.fromCallable(() -> redisLikeService.likedBy(keys)));
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,22 @@
 package com.volunteerhub.configuration.graphql;
 
-import graphql.analysis.MaxQueryDepthInstrumentation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class GraphQlConfig {
 
+    /**
+     * Chặn theo cost (size nhân qua các tầng list) thay vì chỉ theo độ sâu:
+     * query nông nhưng size lớn vẫn bị từ chối trước khi chạm DB.
+     */
     @Bean
-    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation() {
-        // Ép cứng độ sâu tối đa là 20 (Thoải mái cho Facebook Wall)
-        return new MaxQueryDepthInstrumentation(20); 
+    public QueryCostInstrumentation queryCostInstrumentation(QueryBudgetService budgetService,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${graphql.cost.max-query-cost:5000}") long maxQueryCost,
+                                                             @Value("${graphql.cost.default-list-size:10}") int defaultListSize) {
+        return new QueryCostInstrumentation(budgetService, meterRegistry, maxQueryCost, defaultListSize);
     }
-}
\ No newline at end of file
+}
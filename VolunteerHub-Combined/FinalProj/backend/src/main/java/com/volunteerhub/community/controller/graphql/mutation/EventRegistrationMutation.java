@@ -12,6 +12,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 
+import java.util.List;
 import java.util.UUID;
 
 @Controller
@@ -26,6 +27,19 @@ public class EventRegistrationMutation {
         return eventRegistrationService.approveRegistration(registrationId);
     }
 
+    @MutationMapping
+    @PreAuthorize(RolePermission.EVENT_MANAGER)
+    public List<ActionResponse<Void>> approveRegistrations(@Argument Long eventId,
+                                                           @Argument List<Long> registrationIds) {
+        return eventRegistrationService.approveRegistrations(eventId, registrationIds);
+    }
+
+    @MutationMapping
+    @PreAuthorize(RolePermission.EVENT_MANAGER)
+    public List<ActionResponse<Void>> approveAllPending(@Argument Long eventId) {
+        return eventRegistrationService.approveAllPending(eventId);
+    }
+
     @MutationMapping
     @PreAuthorize(RolePermission.EVENT_MANAGER)
     public ActionResponse<Void> rejectRegistration(@Argument Long registrationId) {
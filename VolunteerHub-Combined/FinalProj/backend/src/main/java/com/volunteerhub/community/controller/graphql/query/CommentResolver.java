@@ -1,33 +1,32 @@
 package com.volunteerhub.community.controller.graphql.query;
 
+import com.volunteerhub.community.dto.redis.LikeTarget;
 import com.volunteerhub.community.model.Comment;
-import com.volunteerhub.community.service.redis_service.RedisCountService;
+import com.volunteerhub.community.model.UserProfileMini;
 import lombok.AllArgsConstructor;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @AllArgsConstructor
 public class CommentResolver {
-    
-    private final RedisCountService redisCountService;
-    
+
     @SchemaMapping(typeName = "Comment", field = "likeCount")
-    public Integer likeCount(Comment comment) {
-        return redisCountService.likeCount(comment.getCommentId(), "comment");
+    public CompletableFuture<Integer> likeCount(Comment comment, DataLoader<LikeTarget, Integer> likeCountLoader) {
+        return likeCountLoader.load(new LikeTarget("comment", comment.getCommentId()));
     }
 
     @SchemaMapping(typeName = "Comment", field = "creatorInfo")
-    public com.volunteerhub.community.model.UserProfileMini creatorInfo(Comment comment) {
-        if (comment.getCreatedBy() == null) {
-            return null;
+    public CompletableFuture<UserProfileMini> creatorInfo(Comment comment,
+                                                          DataLoader<UUID, UserProfileMini> creatorInfoLoader) {
+        if (comment.getCreatorId() == null) {
+            return CompletableFuture.completedFuture(null);
         }
-        
-        com.volunteerhub.community.model.UserProfileMini mini = new com.volunteerhub.community.model.UserProfileMini();
-        mini.setUserId(comment.getCreatedBy().getUserId());
-        mini.setUsername(comment.getCreatedBy().getUsername());
-        mini.setAvatarId(comment.getCreatedBy().getAvatarId());
-        return mini;
+        return creatorInfoLoader.load(comment.getCreatorId());
     }
 
     @SchemaMapping(typeName = "Comment", field = "postId")
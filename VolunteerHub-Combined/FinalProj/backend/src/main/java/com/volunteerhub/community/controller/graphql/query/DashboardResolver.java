@@ -4,31 +4,40 @@ import com.volunteerhub.community.dto.graphql.EventSummary;
 import com.volunteerhub.community.dto.graphql.PostSummary;
 import com.volunteerhub.community.dto.graphql.input.EventFilter;
 import com.volunteerhub.community.dto.graphql.input.PostFilter;
+import com.volunteerhub.community.dto.redis.EventCounters;
+import com.volunteerhub.community.dto.redis.PostCounters;
 import com.volunteerhub.community.model.Event;
 import com.volunteerhub.community.model.Post;
 import com.volunteerhub.community.model.UserProfileMini;
 import com.volunteerhub.community.repository.EventRepository;
 import com.volunteerhub.community.repository.PostRepository;
+import com.volunteerhub.community.service.cache_service.UserProfileMiniCache;
+import com.volunteerhub.community.service.redis_service.FeedService;
 import com.volunteerhub.community.service.redis_service.RedisCountService;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Controller
 @AllArgsConstructor
 public class DashboardResolver {
-    
+    private static final int TRENDING_OVERFETCH = 4;
+
     private final EventRepository eventRepository;
     private final PostRepository postRepository;
     private final RedisCountService redisCountService;
+    private final UserProfileMiniCache userProfileMiniCache;
+    private final FeedService feedService;
 
     @QueryMapping
     public List<EventSummary> dashboardEvents(@Argument EventFilter filter) {
@@ -40,24 +49,46 @@ public class DashboardResolver {
         }
 
         int limit = filter.getLimit() != null ? filter.getLimit() : 10;
-        Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-        
-        List<Event> events = eventRepository.findAll(pageable).getContent();
-        
-        return events.stream().map(event -> EventSummary.builder()
-                .eventId(event.getEventId())
-                .eventName(event.getEventName())
-                .createdAt(event.getCreatedAt())
-                .memberCount(redisCountService.memberCount(event.getEventId()))
-                .postCount(redisCountService.postCount(event.getEventId()))
-                .likeCount(redisCountService.likeCount(event.getEventId(), "event"))
-                .creatorInfo(event.getCreatedBy() != null ? UserProfileMini.builder()
-                        .userId(event.getCreatedBy().getUserId())
-                        .username(event.getCreatedBy().getUsername())
-                        .avatarId(event.getCreatedBy().getAvatarId())
-                        .build() : null)
-                .build()
-        ).collect(Collectors.toList());
+        LocalDateTime since = filter.getSince();
+
+        List<Event> events;
+        if (Boolean.TRUE.equals(filter.getTrending())) {
+            // trending xếp theo điểm, lọc since sau khi hydrate nên lấy dư
+            int fetch = since != null ? limit * TRENDING_OVERFETCH : limit;
+            events = hydrateEvents(feedService.trendingEvents(fetch)).stream()
+                    .filter(event -> since == null || !event.getCreatedAt().isBefore(since))
+                    .limit(limit)
+                    .toList();
+        } else {
+            events = hydrateEvents(feedService.recentEvents(limit, since));
+            if (events.size() < limit) {
+                // feed thiếu (Redis vừa mất dữ liệu, chưa tới lượt maintain() nạp lại): đọc thẳng DB
+                events = since != null
+                        ? eventRepository.findByCreatedAtGreaterThanEqualOrderByEventIdDesc(since, Limit.of(limit))
+                        : eventRepository.findByEventIdLessThanOrderByEventIdDesc(Long.MAX_VALUE, Limit.of(limit));
+            }
+        }
+
+        Map<UUID, UserProfileMini> creators = userProfileMiniCache.getAll(events.stream()
+                .map(Event::getCreatorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        Map<Long, EventCounters> counters = redisCountService.countsFor(events.stream()
+                .map(Event::getEventId)
+                .toList());
+
+        return events.stream().map(event -> {
+            EventCounters count = counters.get(event.getEventId());
+            return EventSummary.builder()
+                    .eventId(event.getEventId())
+                    .eventName(event.getEventName())
+                    .createdAt(event.getCreatedAt())
+                    .memberCount(count.getMemberCount())
+                    .postCount(count.getPostCount())
+                    .likeCount(count.getLikeCount())
+                    .creatorInfo(event.getCreatorId() != null ? creators.get(event.getCreatorId()) : null)
+                    .build();
+        }).collect(Collectors.toList());
     }
 
     @QueryMapping
@@ -70,22 +101,50 @@ public class DashboardResolver {
         }
 
         int limit = filter.getLimit() != null ? filter.getLimit() : 10;
-        Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-        
+
         List<Post> posts;
         if (filter.getEventIds() != null && !filter.getEventIds().isEmpty()) {
-            posts = postRepository.findByEvent_EventIdIn(filter.getEventIds(), pageable).getContent();
+            // theo event_id (có index), không phụ thuộc kích thước bảng
+            posts = postRepository.findByEventIdInOrderByPostIdDesc(filter.getEventIds(), Limit.of(limit));
         } else {
-            posts = postRepository.findAll(pageable).getContent();
+            posts = hydratePosts(feedService.recentPosts(limit));
+            if (posts.size() < limit) {
+                posts = postRepository.findByPostIdLessThanOrderByPostIdDesc(Long.MAX_VALUE, Limit.of(limit));
+            }
         }
-        
-        return posts.stream().map(post -> PostSummary.builder()
-                .postId(post.getPostId())
-                .eventId(post.getEvent() != null ? post.getEvent().getEventId() : null)
-                .createdAt(post.getCreatedAt())
-                .commentCount(redisCountService.commentCount(post.getPostId()))
-                .likeCount(redisCountService.likeCount(post.getPostId(), "post"))
-                .build()
-        ).collect(Collectors.toList());
+
+        Map<Long, PostCounters> counters = redisCountService.postCountsFor(posts.stream()
+                .map(Post::getPostId)
+                .toList());
+
+        return posts.stream().map(post -> {
+            PostCounters count = counters.get(post.getPostId());
+            return PostSummary.builder()
+                    .postId(post.getPostId())
+                    .eventId(post.getEventId())
+                    .createdAt(post.getCreatedAt())
+                    .commentCount(count.getCommentCount())
+                    .likeCount(count.getLikeCount())
+                    .build();
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Một query WHERE id IN (...) rồi giữ đúng thứ tự của feed, bỏ qua id đã bị xoá.
+     */
+    private List<Event> hydrateEvents(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, Event> byId = eventRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Event::getEventId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<Post> hydratePosts(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, Post> byId = postRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Post::getPostId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 }
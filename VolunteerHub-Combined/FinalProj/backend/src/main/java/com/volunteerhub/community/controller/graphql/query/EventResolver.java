@@ -1,28 +1,31 @@
 package com.volunteerhub.community.controller.graphql.query;
 
-
+import com.volunteerhub.community.dto.redis.LikeTarget;
 import com.volunteerhub.community.model.Event;
 import com.volunteerhub.community.model.Post;
+import com.volunteerhub.community.model.UserProfileMini;
 import com.volunteerhub.community.repository.EventRepository;
 import com.volunteerhub.community.repository.PostRepository;
-import com.volunteerhub.community.service.redis_service.RedisCountService;
+import com.volunteerhub.community.service.cache_service.DetailCache;
+import com.volunteerhub.ultis.page.CursorPage;
+import com.volunteerhub.ultis.page.CursorUtils;
 import com.volunteerhub.ultis.page.OffsetPage;
-import com.volunteerhub.ultis.page.PageInfo;
+import com.volunteerhub.ultis.page.PageCountCache;
 import com.volunteerhub.ultis.page.PageUtils;
 
 import graphql.schema.DataFetchingEnvironment;
 import lombok.AllArgsConstructor;
 
 import org.dataloader.DataLoader;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 @Controller
@@ -30,72 +33,88 @@ import java.util.concurrent.CompletableFuture;
 public class EventResolver {
     private final EventRepository eventRepository;
     private final PostRepository postRepository;
-    private final RedisCountService redisCountService;
+    private final PageCountCache pageCountCache;
+    private final DetailCache detailCache;
 
     @QueryMapping
     public Event getEvent(@Argument Long eventId) {
-        return eventRepository.findById(eventId).orElse(null);
+        return detailCache.getEvent(eventId);
     }
 
     @QueryMapping
     public OffsetPage<Event> findEvents(@Argument Integer page,
                                         @Argument Integer size,
-                                        @Argument Map<String, Object> filter) {
+                                        @Argument Map<String, Object> filter,
+                                        DataFetchingEnvironment env) {
         int safePage = Math.max(page, 0);
         int safeSize = size > 0 ? size : 10;
 
-        Pageable pageable = PageRequest.of(safePage, safeSize);
-        Page<Event> eventPage = eventRepository.findAll(pageable);
-        PageInfo pageInfo = PageUtils.from(eventPage);
+        return PageUtils.page(env, safePage, safeSize,
+                eventRepository::findAllBy,
+                () -> pageCountCache.approximate("events", eventRepository::count));
+    }
 
-        return OffsetPage.<Event>builder()
-                .content(eventPage.getContent())
-                .pageInfo(pageInfo)
-                .build();
+    @QueryMapping
+    public CursorPage<Event> findEventsByCursor(@Argument Integer size,
+                                                @Argument String after,
+                                                DataFetchingEnvironment env) {
+        int safeSize = CursorUtils.safeSize(size);
+
+        List<Event> rows = eventRepository.findByEventIdLessThanOrderByEventIdDesc(
+                CursorUtils.decode(after), Limit.of(safeSize + 1));
+        return CursorUtils.from(rows, safeSize, Event::getEventId, env,
+                () -> pageCountCache.approximate("events", eventRepository::count));
     }
 
     @SchemaMapping(typeName = "Event", field = "listPosts")
     public OffsetPage<Post> listPosts(Event event,
                                       @Argument Integer page,
-                                      @Argument Integer size) {
+                                      @Argument Integer size,
+                                      DataFetchingEnvironment env) {
         int safePage = Math.max(page, 0);
         int safeSize = size > 0 ? size : 10;
 
-        Pageable pageable = PageRequest.of(safePage, safeSize);
-        Page<Post> postPage = postRepository.findByEvent_EventId(event.getEventId(), pageable);
-        PageInfo pageInfo = PageUtils.from(postPage);
-        return OffsetPage.<Post>builder()
-                .content(postPage.getContent())
-                .pageInfo(pageInfo)
-                .build();
+        return PageUtils.page(env, safePage, safeSize,
+                pageable -> postRepository.findByEvent_EventId(event.getEventId(), pageable),
+                () -> pageCountCache.cached("posts:event:" + event.getEventId(),
+                        () -> postRepository.countByEventId(event.getEventId())));
     }
 
+    @SchemaMapping(typeName = "Event", field = "listPostsByCursor")
+    public CursorPage<Post> listPostsByCursor(Event event,
+                                              @Argument Integer size,
+                                              @Argument String after,
+                                              DataFetchingEnvironment env) {
+        int safeSize = CursorUtils.safeSize(size);
+
+        List<Post> rows = postRepository.findByEventIdAndPostIdLessThanOrderByPostIdDesc(
+                event.getEventId(), CursorUtils.decode(after), Limit.of(safeSize + 1));
+        return CursorUtils.from(rows, safeSize, Post::getPostId, env,
+                () -> pageCountCache.cached("posts:event:" + event.getEventId(),
+                        () -> postRepository.countByEventId(event.getEventId())));
+    }
 
     @SchemaMapping(typeName = "Event", field = "memberCount")
-    public Integer memberCount(Event event) {
-        return redisCountService.memberCount(event.getEventId());
+    public CompletableFuture<Integer> memberCount(Event event, DataLoader<Long, Integer> memberCountLoader) {
+        return memberCountLoader.load(event.getEventId());
     }
 
     @SchemaMapping(typeName = "Event", field = "postCount")
-    public Integer postCount(Event event) {
-        return redisCountService.postCount(event.getEventId());
+    public CompletableFuture<Integer> postCount(Event event, DataLoader<Long, Integer> postCountLoader) {
+        return postCountLoader.load(event.getEventId());
     }
 
     @SchemaMapping(typeName = "Event", field = "likeCount")
-    public Integer likeCount(Event event) {
-        return redisCountService.likeCount(event.getEventId(), "event");
+    public CompletableFuture<Integer> likeCount(Event event, DataLoader<LikeTarget, Integer> likeCountLoader) {
+        return likeCountLoader.load(new LikeTarget("event", event.getEventId()));
     }
 
     @SchemaMapping(typeName = "Event", field = "creatorInfo")
-    public com.volunteerhub.community.model.UserProfileMini creatorInfo(Event event) {
-        if (event.getCreatedBy() == null) {
-            return null;
+    public CompletableFuture<UserProfileMini> creatorInfo(Event event,
+                                                          DataLoader<UUID, UserProfileMini> creatorInfoLoader) {
+        if (event.getCreatorId() == null) {
+            return CompletableFuture.completedFuture(null);
         }
-        
-        com.volunteerhub.community.model.UserProfileMini mini = new com.volunteerhub.community.model.UserProfileMini();
-        mini.setUserId(event.getCreatedBy().getUserId());
-        mini.setUsername(event.getCreatedBy().getUsername());
-        mini.setAvatarId(event.getCreatedBy().getAvatarId());
-        return mini;
+        return creatorInfoLoader.load(event.getCreatorId());
     }
 }
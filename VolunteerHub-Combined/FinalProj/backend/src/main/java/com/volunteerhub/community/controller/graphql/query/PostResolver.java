@@ -1,121 +1,125 @@
 package com.volunteerhub.community.controller.graphql.query;
 
+import com.volunteerhub.community.dto.redis.LikeTarget;
+import com.volunteerhub.community.dto.redis.LikedKey;
 import com.volunteerhub.community.model.Comment;
 import com.volunteerhub.community.model.Post;
-import com.volunteerhub.community.model.db_enum.TableType;
-import com.volunteerhub.community.repository.LikeRepository;
-import com.volunteerhub.community.service.redis_service.RedisCountService;
+import com.volunteerhub.community.model.UserProfileMini;
+import com.volunteerhub.ultis.page.CursorPage;
+import com.volunteerhub.ultis.page.CursorUtils;
 import com.volunteerhub.ultis.page.OffsetPage;
-import com.volunteerhub.ultis.page.PageInfo;
+import com.volunteerhub.ultis.page.PageCountCache;
 import com.volunteerhub.ultis.page.PageUtils;
 
 import com.volunteerhub.community.repository.CommentRepository;
 import com.volunteerhub.community.repository.PostRepository;
+import com.volunteerhub.community.service.cache_service.DetailCache;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.dataloader.DataLoader;
+import org.springframework.data.domain.Limit;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @AllArgsConstructor
 public class PostResolver {
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
-    private final RedisCountService redisCountService;
-    private final LikeRepository likeRepository;
+    private final PageCountCache pageCountCache;
+    private final DetailCache detailCache;
 
     @QueryMapping
     public Post getPost(@Argument Long postId) {
-        return postRepository.findById(postId).orElse(null);
+        return detailCache.getPost(postId);
     }
 
     @QueryMapping
     public OffsetPage<Post> findPosts(@Argument Integer page,
                                       @Argument Integer size,
-                                      @Argument Map<String, Object> filter) {
+                                      @Argument Map<String, Object> filter,
+                                      DataFetchingEnvironment env) {
         int safePage = Math.max(page, 0);
         int safeSize = size > 0 ? size : 10;
 
-        Pageable pageable = PageRequest.of(safePage, safeSize);
-        Page<Post> postPage = postRepository.findAll(pageable);
-        PageInfo pageInfo = PageUtils.from(postPage);
-        return OffsetPage.<Post>builder()
-                .content(postPage.getContent())
-                .pageInfo(pageInfo)
-                .build();
+        return PageUtils.page(env, safePage, safeSize,
+                postRepository::findAllBy,
+                () -> pageCountCache.approximate("posts", postRepository::count));
+    }
+
+    @QueryMapping
+    public CursorPage<Post> findPostsByCursor(@Argument Integer size,
+                                              @Argument String after,
+                                              DataFetchingEnvironment env) {
+        int safeSize = CursorUtils.safeSize(size);
+
+        List<Post> rows = postRepository.findByPostIdLessThanOrderByPostIdDesc(
+                CursorUtils.decode(after), Limit.of(safeSize + 1));
+        return CursorUtils.from(rows, safeSize, Post::getPostId, env,
+                () -> pageCountCache.approximate("posts", postRepository::count));
     }
 
     @SchemaMapping(typeName = "Post", field = "listComment")
-    public OffsetPage<Comment> listComment(Post Post, @Argument Integer page, @Argument Integer size) {
+    public OffsetPage<Comment> listComment(Post Post, @Argument Integer page, @Argument Integer size,
+                                           DataFetchingEnvironment env) {
         int safePage = Math.max(page, 0);
         int safeSize = size > 0 ? size : 10;
 
-        Pageable pageable = PageRequest.of(safePage, safeSize);
-        Page<Comment> commentPage = commentRepository.findByPost_PostId(Post.getPostId(), pageable);
-        PageInfo pageInfo = PageUtils.from(commentPage);
-        return OffsetPage.<Comment>builder()
-                .content(commentPage.getContent())
-                .pageInfo(pageInfo)
-                .build();
+        return PageUtils.page(env, safePage, safeSize,
+                pageable -> commentRepository.findByPost_PostId(Post.getPostId(), pageable),
+                () -> pageCountCache.cached("comments:post:" + Post.getPostId(),
+                        () -> commentRepository.countByPost_PostId(Post.getPostId())));
+    }
+
+    @SchemaMapping(typeName = "Post", field = "listCommentByCursor")
+    public CursorPage<Comment> listCommentByCursor(Post post,
+                                                   @Argument Integer size,
+                                                   @Argument String after,
+                                                   DataFetchingEnvironment env) {
+        int safeSize = CursorUtils.safeSize(size);
+
+        List<Comment> rows = commentRepository.findByPost_PostIdAndCommentIdLessThanOrderByCommentIdDesc(
+                post.getPostId(), CursorUtils.decode(after), Limit.of(safeSize + 1));
+        return CursorUtils.from(rows, safeSize, Comment::getCommentId, env,
+                () -> pageCountCache.cached("comments:post:" + post.getPostId(),
+                        () -> commentRepository.countByPost_PostId(post.getPostId())));
     }
 
     @SchemaMapping(typeName = "Post", field = "commentCount")
-    public Integer commentCount(Post post) {
-        return redisCountService.commentCount(post.getPostId());
+    public CompletableFuture<Integer> commentCount(Post post, DataLoader<Long, Integer> commentCountLoader) {
+        return commentCountLoader.load(post.getPostId());
     }
 
     @SchemaMapping(typeName = "Post", field = "likeCount")
-    public Integer likeCount(Post post) {
-        return redisCountService.likeCount(post.getPostId(), "post");
+    public CompletableFuture<Integer> likeCount(Post post, DataLoader<LikeTarget, Integer> likeCountLoader) {
+        return likeCountLoader.load(new LikeTarget("post", post.getPostId()));
     }
 
     @SchemaMapping(typeName = "Post", field = "creatorInfo")
-    public com.volunteerhub.community.model.UserProfileMini creatorInfo(Post post) {
-        if (post.getCreatedBy() == null) {
-            return null;
+    public CompletableFuture<UserProfileMini> creatorInfo(Post post,
+                                                          DataLoader<UUID, UserProfileMini> creatorInfoLoader) {
+        if (post.getCreatorId() == null) {
+            return CompletableFuture.completedFuture(null);
         }
-        
-        com.volunteerhub.community.model.UserProfileMini mini = new com.volunteerhub.community.model.UserProfileMini();
-        mini.setUserId(post.getCreatedBy().getUserId());
-        mini.setUsername(post.getCreatedBy().getUsername());
-        mini.setAvatarId(post.getCreatedBy().getAvatarId());
-        return mini;
+        return creatorInfoLoader.load(post.getCreatorId());
     }
 
     @SchemaMapping(typeName = "Post", field = "isLiked")
-    public Boolean isLiked(Post post) {
-        try {
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            if (email == null || email.equals("anonymousUser")) {
-                return false;
-            }
-            
-            // Parse UUID from email (assuming email format contains UUID)
-            // You might need to adjust this based on your authentication structure
-            String userIdStr = email; // Adjust if needed
-            UUID userId;
-            try {
-                userId = UUID.fromString(userIdStr);
-            } catch (IllegalArgumentException e) {
-                // If email is not UUID format, return false
-                return false;
-            }
-            
-            return likeRepository.existsByTargetIdAndTableTypeAndCreatedBy_UserId(
-                post.getPostId(), 
-                TableType.POST, 
-                userId
-            );
-        } catch (Exception e) {
-            return false;
+    public CompletableFuture<Boolean> isLiked(Post post,
+                                              @AuthenticationPrincipal UUID userId,
+                                              DataLoader<LikedKey, Boolean> isLikedLoader) {
+        // anonymous: principal không phải UUID
+        if (userId == null) {
+            return CompletableFuture.completedFuture(false);
         }
+        return isLikedLoader.load(new LikedKey(userId, "post", post.getPostId()));
     }
 }
@@ -0,0 +1,26 @@
+package com.volunteerhub.community.controller.graphql.subscription;
+
+import com.volunteerhub.community.dto.graphql.type.EventCountersUpdate;
+import com.volunteerhub.community.dto.graphql.type.PostCountersUpdate;
+import com.volunteerhub.community.service.redis_service.LiveCounterService;
+import lombok.AllArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+@Controller
+@AllArgsConstructor
+public class CounterSubscription {
+    private final LiveCounterService liveCounterService;
+
+    @SubscriptionMapping
+    public Flux<PostCountersUpdate> postCounters(@Argument Long postId) {
+        return liveCounterService.postCounters(postId);
+    }
+
+    @SubscriptionMapping
+    public Flux<EventCountersUpdate> eventCounters(@Argument Long eventId) {
+        return liveCounterService.eventCounters(eventId);
+    }
+}
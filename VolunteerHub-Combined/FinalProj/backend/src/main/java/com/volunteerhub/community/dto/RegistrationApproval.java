@@ -0,0 +1,15 @@
+package com.volunteerhub.community.dto;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Kết quả duyệt một đăng ký trong batch: approved = false nghĩa là user đã có role trong event.
+ */
+@Value
+public class RegistrationApproval {
+    Long registrationId;
+    UUID userId;
+    boolean approved;
+}
@@ -2,6 +2,7 @@ package com.volunteerhub.community.dto.graphql.input;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Data;
@@ -31,4 +32,7 @@ public class CreateEventInput {
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime endAt;
+
+    @Positive(message = "Event capacity must be positive")
+    private Integer capacity;
 }
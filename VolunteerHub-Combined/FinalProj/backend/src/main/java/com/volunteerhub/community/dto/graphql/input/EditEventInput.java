@@ -3,6 +3,7 @@ package com.volunteerhub.community.dto.graphql.input;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Data;
@@ -29,4 +30,10 @@ public class EditEventInput {
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime eventDate;
+
+    @Positive(message = "Event capacity must be positive")
+    private Integer capacity;
+
+    // true: bỏ giới hạn số chỗ, không dùng chung với capacity
+    private Boolean clearCapacity;
 }
@@ -0,0 +1,13 @@
+package com.volunteerhub.community.dto.graphql.type;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class EventCountersUpdate {
+    private Long eventId;
+    private int memberCount;
+    private int postCount;
+    private int likeCount;
+}
@@ -0,0 +1,12 @@
+package com.volunteerhub.community.dto.graphql.type;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PostCountersUpdate {
+    private Long postId;
+    private int likeCount;
+    private int commentCount;
+}
@@ -0,0 +1,14 @@
+package com.volunteerhub.community.dto.redis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventCounters {
+    private int memberCount;
+    private int postCount;
+    private int likeCount;
+}
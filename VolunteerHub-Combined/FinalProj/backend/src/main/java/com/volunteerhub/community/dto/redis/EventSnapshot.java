@@ -0,0 +1,72 @@
+package com.volunteerhub.community.dto.redis;
+
+import com.volunteerhub.community.model.Event;
+import com.volunteerhub.community.model.db_enum.EventState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bản chụp các cột scalar của Event để cache, không giữ quan hệ lazy.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSnapshot {
+    private Long eventId;
+    private String eventName;
+    private String eventDescription;
+    private String eventLocation;
+    private UUID creatorId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime startTime;
+    private LocalDateTime endAt;
+    private Integer capacity;
+    private EventState eventState;
+    private Map<String, Object> metadata;
+
+    public static EventSnapshot from(Event event) {
+        return EventSnapshot.builder()
+                .eventId(event.getEventId())
+                .eventName(event.getEventName())
+                .eventDescription(event.getEventDescription())
+                .eventLocation(event.getEventLocation())
+                .creatorId(event.getCreatorId())
+                .createdAt(event.getCreatedAt())
+                .updatedAt(event.getUpdatedAt())
+                .startTime(event.getStartTime())
+                .endAt(event.getEndAt())
+                .capacity(event.getCapacity())
+                .eventState(event.getEventState())
+                .metadata(event.getMetadata())
+                .build();
+    }
+
+    /**
+     * Event detached, chỉ dùng để trả về cho GraphQL (không save lại).
+     */
+    public Event toEvent() {
+        return Event.builder()
+                .eventId(eventId)
+                .eventName(eventName)
+                .eventDescription(eventDescription)
+                .eventLocation(eventLocation)
+                .creatorId(creatorId)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .startTime(startTime)
+                .endAt(endAt)
+                .capacity(capacity)
+                .eventState(eventState)
+                .metadata(metadata != null ? new HashMap<>(metadata) : new HashMap<>())
+                .build();
+    }
+}
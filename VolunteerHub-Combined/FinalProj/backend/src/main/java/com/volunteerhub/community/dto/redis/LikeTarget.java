@@ -0,0 +1,9 @@
+package com.volunteerhub.community.dto.redis;
+
+import lombok.Value;
+
+@Value
+public class LikeTarget {
+    String tableType;
+    Long targetId;
+}
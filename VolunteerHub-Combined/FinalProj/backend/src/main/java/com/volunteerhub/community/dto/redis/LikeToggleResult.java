@@ -0,0 +1,15 @@
+package com.volunteerhub.community.dto.redis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LikeToggleResult {
+    private Long targetId;
+    private String tableType;
+    private boolean changed;   // false nếu user đã like/unlike từ trước
+    private long likeCount;
+}
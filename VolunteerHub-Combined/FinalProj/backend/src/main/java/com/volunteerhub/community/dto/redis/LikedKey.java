@@ -0,0 +1,15 @@
+package com.volunteerhub.community.dto.redis;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Khoá cho isLikedLoader: user hiện tại đã like target này chưa.
+ */
+@Value
+public class LikedKey {
+    UUID userId;
+    String tableType;
+    Long targetId;
+}
@@ -0,0 +1,13 @@
+package com.volunteerhub.community.dto.redis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostCounters {
+    private int commentCount;
+    private int likeCount;
+}
@@ -0,0 +1,62 @@
+package com.volunteerhub.community.dto.redis;
+
+import com.volunteerhub.community.model.Post;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bản chụp các cột scalar của Post để cache, không giữ quan hệ lazy.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSnapshot {
+    private Long postId;
+    private Long eventId;
+    private UUID creatorId;
+    private String title;
+    private String content;
+    private String imageUrl;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Map<String, Object> metadata;
+
+    public static PostSnapshot from(Post post) {
+        return PostSnapshot.builder()
+                .postId(post.getPostId())
+                .eventId(post.getEventId())
+                .creatorId(post.getCreatorId())
+                .title(post.getTitle())
+                .content(post.getContent())
+                .imageUrl(post.getImageUrl())
+                .createdAt(post.getCreatedAt())
+                .updatedAt(post.getUpdatedAt())
+                .metadata(post.getMetadata())
+                .build();
+    }
+
+    /**
+     * Post detached, chỉ dùng để trả về cho GraphQL (không save lại).
+     */
+    public Post toPost() {
+        return Post.builder()
+                .postId(postId)
+                .eventId(eventId)
+                .creatorId(creatorId)
+                .title(title)
+                .content(content)
+                .imageUrl(imageUrl)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .metadata(metadata != null ? new HashMap<>(metadata) : new HashMap<>())
+                .build();
+    }
+}
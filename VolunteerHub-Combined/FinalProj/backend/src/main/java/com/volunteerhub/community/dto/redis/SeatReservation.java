@@ -0,0 +1,19 @@
+package com.volunteerhub.community.dto.redis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Một chỗ đã giữ trên Redis, chờ SeatSyncWorker ghi thành dòng event_registration.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatReservation {
+    private Long registrationId;
+    private Long eventId;
+    private UUID userId;
+}
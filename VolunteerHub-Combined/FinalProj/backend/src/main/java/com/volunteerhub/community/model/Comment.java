@@ -25,8 +25,8 @@ public class Comment {
     @Column(name = "content", nullable = false, columnDefinition = "TEXT")
     private String content;
 
-//    @Column(name = "created_by", insertable = false, updatable = false)
-//    private UUID creatorId;
+    @Column(name = "created_by", insertable = false, updatable = false)
+    private UUID creatorId;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
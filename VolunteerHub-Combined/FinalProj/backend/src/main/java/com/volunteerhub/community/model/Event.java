@@ -32,8 +32,8 @@ public class Event {
     @Column(name = "event_location", columnDefinition = "TEXT")
     private String eventLocation;
 
-//    @Column(name = "created_by", insertable = false, updatable = false)
-//    private UUID creatorId;
+    @Column(name = "created_by", insertable = false, updatable = false)
+    private UUID creatorId;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -51,10 +51,23 @@ public class Event {
     @JoinColumn(name = "created_by", updatable = false)
     private UserProfile createdBy;
 
+    // null = không giới hạn số người đăng ký
+    @Column(name = "capacity")
+    private Integer capacity;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "event_state", nullable = false)
     private EventState eventState = EventState.PENDING;
 
+    // Counter do CounterRollupWorker cập nhật, entity chỉ đọc
+    @Builder.Default
+    @Column(name = "member_count", insertable = false, updatable = false)
+    private Integer memberCount = 0;
+
+    @Builder.Default
+    @Column(name = "post_count", insertable = false, updatable = false)
+    private Integer postCount = 0;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "metadata")
     private Map<String, Object> metadata = new HashMap<>();
@@ -7,10 +7,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "event_registration", indexes = {
-        @Index(
-                name = "idx_user_event",
-                columnList = "user_id, event_id"
+@Table(name = "event_registration", uniqueConstraints = {
+        @UniqueConstraint(
+                name = "uq_event_registration_user_event",
+                columnNames = {"user_id", "event_id"}
         )
 })
 @Getter
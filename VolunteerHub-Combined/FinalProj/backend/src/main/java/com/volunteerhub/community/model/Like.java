@@ -7,7 +7,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "likes")
+@Table(name = "likes", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_likes_user_target", columnNames = {"created_by", "target_type", "target_id"})
+})
 @Getter
 @Setter
 @Builder
@@ -51,6 +51,11 @@ public class Post {
     @JoinColumn(name = "event_id", updatable = false)
     private Event event;
 
+    // Counter do CounterRollupWorker cập nhật, entity chỉ đọc
+    @Builder.Default
+    @Column(name = "comment_count", insertable = false, updatable = false)
+    private Integer commentCount = 0;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "metadata")
     private Map<String, Object> metadata = new HashMap<>();
@@ -56,14 +56,17 @@ public class UserProfile {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
-    // Các trường thống kê (không có trong DB)
-    @Transient
+    // Counter do CounterRollupWorker cập nhật, entity chỉ đọc
+    @Builder.Default
+    @Column(name = "event_count", insertable = false, updatable = false)
     private Integer eventCount = 0;
-    
-    @Transient
+
+    @Builder.Default
+    @Column(name = "post_count", insertable = false, updatable = false)
     private Integer postCount = 0;
-    
-    @Transient
+
+    @Builder.Default
+    @Column(name = "comment_count", insertable = false, updatable = false)
     private Integer commentCount = 0;
 
     @PrePersist
@@ -2,8 +2,8 @@ package com.volunteerhub.community.repository;
 
 import com.volunteerhub.community.model.Event;
 import com.volunteerhub.community.model.EventRegistration;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface EventRegistrationRepository extends JpaRepository<EventRegistration, Long> {
+public interface EventRegistrationRepository extends JpaRepository<EventRegistration, Long>, EventRegistrationUpsertRepository {
     // Kiểm tra đã đăng ký chưa (không cần status)
     boolean existsByUserIdAndEventId(UUID userId, Long eventId);
 
@@ -24,8 +24,12 @@ public interface EventRegistrationRepository extends JpaRepository<EventRegistra
     
     // Lấy danh sách Event mà user đã đăng ký
     @Query("SELECT er.event FROM EventRegistration er WHERE er.userProfile.userId = :userId")
-    Page<Event> findEventsByUserId(@Param("userId") UUID userId, Pageable pageable);
+    Slice<Event> findEventsByUserId(@Param("userId") UUID userId, Pageable pageable);
     
+    // Lấy danh sách userId đã đăng ký một event (nạp set giữ chỗ trên Redis)
+    @Query("SELECT er.userId FROM EventRegistration er WHERE er.eventId = :eventId")
+    List<UUID> findUserIdsByEventId(@Param("eventId") Long eventId);
+
     // Lấy danh sách eventId mà user đã đăng ký (theo userId)
     @Query("SELECT er.eventId FROM EventRegistration er WHERE er.userId = :userId")
     List<Long> findEventIdsByUserId(@Param("userId") UUID userId);
@@ -0,0 +1,30 @@
+package com.volunteerhub.community.repository;
+
+import com.volunteerhub.community.dto.redis.SeatReservation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public interface EventRegistrationUpsertRepository {
+    /**
+     * INSERT ... ON CONFLICT (user_id, event_id) DO NOTHING RETURNING, một round trip.
+     * Rỗng nếu user đã đăng ký hoặc đã là thành viên của event.
+     * Event không tồn tại thì ném DataIntegrityViolationException (FK event_id).
+     */
+    Optional<Long> insertIfAbsent(Long registrationId, UUID userId, Long eventId);
+
+    /**
+     * Ghi cả batch chỗ đã giữ trên Redis trong một câu INSERT ... SELECT FROM unnest(...).
+     * Trả về registrationId của các dòng thực sự được chèn; dòng bị bỏ qua
+     * (event đã xoá, đã đăng ký, đã là thành viên) không có trong kết quả.
+     */
+    Set<Long> insertReservations(Collection<SeatReservation> reservations);
+
+    /**
+     * Xoá theo registrationId, trả về userId của các dòng đã xoá.
+     */
+    List<UUID> deleteRegistrations(Collection<Long> registrationIds);
+}
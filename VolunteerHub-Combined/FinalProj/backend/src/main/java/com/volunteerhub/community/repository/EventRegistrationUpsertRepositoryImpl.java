@@ -0,0 +1,82 @@
+package com.volunteerhub.community.repository;
+
+import com.volunteerhub.community.dto.redis.SeatReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class EventRegistrationUpsertRepositoryImpl implements EventRegistrationUpsertRepository {
+
+    private static final String INSERT_REGISTRATION = """
+            INSERT INTO event_registration (registration_id, event_id, user_id, created_at, updated_at)
+            SELECT ?, ?, ?, ?, ?
+            WHERE NOT EXISTS (
+                SELECT 1 FROM role_in_event
+                WHERE user_profile_id = ? AND event_id = ?
+                  AND participation_status IN ('APPROVED', 'COMPLETED')
+            )
+            ON CONFLICT (user_id, event_id) DO NOTHING
+            RETURNING registration_id
+            """;
+
+    // JOIN events: event đã bị xoá thì bỏ qua dòng thay vì lỗi FK cả batch
+    private static final String INSERT_RESERVATIONS = """
+            INSERT INTO event_registration (registration_id, event_id, user_id, created_at, updated_at)
+            SELECT r.registration_id, r.event_id, r.user_id, now(), now()
+            FROM unnest(?::bigint[], ?::bigint[], ?::uuid[]) AS r(registration_id, event_id, user_id)
+            JOIN events e ON e.event_id = r.event_id
+            WHERE NOT EXISTS (
+                SELECT 1 FROM role_in_event ri
+                WHERE ri.user_profile_id = r.user_id AND ri.event_id = r.event_id
+                  AND ri.participation_status IN ('APPROVED', 'COMPLETED')
+            )
+            ON CONFLICT (user_id, event_id) DO NOTHING
+            RETURNING registration_id
+            """;
+
+    private static final String DELETE_REGISTRATIONS = """
+            DELETE FROM event_registration
+            WHERE registration_id = ANY (?::bigint[])
+            RETURNING user_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<Long> insertIfAbsent(Long registrationId, UUID userId, Long eventId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.query(INSERT_REGISTRATION, (rs, rowNum) -> rs.getLong(1),
+                        registrationId, eventId, userId, now, now, userId, eventId)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public Set<Long> insertReservations(Collection<SeatReservation> reservations) {
+        if (reservations.isEmpty()) return Set.of();
+
+        Long[] registrationIds = reservations.stream().map(SeatReservation::getRegistrationId).toArray(Long[]::new);
+        Long[] eventIds = reservations.stream().map(SeatReservation::getEventId).toArray(Long[]::new);
+        UUID[] userIds = reservations.stream().map(SeatReservation::getUserId).toArray(UUID[]::new);
+
+        return new HashSet<>(jdbcTemplate.query(INSERT_RESERVATIONS, (rs, rowNum) -> rs.getLong(1),
+                registrationIds, eventIds, userIds));
+    }
+
+    @Override
+    public List<UUID> deleteRegistrations(Collection<Long> registrationIds) {
+        if (registrationIds.isEmpty()) return List.of();
+
+        return jdbcTemplate.query(DELETE_REGISTRATIONS, (rs, rowNum) -> rs.getObject(1, UUID.class),
+                (Object) registrationIds.toArray(Long[]::new));
+    }
+}
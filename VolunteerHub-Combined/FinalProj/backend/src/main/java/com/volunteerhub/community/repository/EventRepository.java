@@ -3,12 +3,24 @@ package com.volunteerhub.community.repository;
 import com.volunteerhub.community.model.Event;
 import com.volunteerhub.community.model.db_enum.EventState;
 import io.lettuce.core.dynamic.annotation.Param;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 public interface EventRepository extends JpaRepository<Event, Long> {
     @Modifying
     @Query("UPDATE Event e SET e.eventState = :eventState WHERE e.eventId = :eventId")
     int updateEventStatus(@Param("eventId") Long eventId, @Param("eventState") EventState eventState);
+
+    Slice<Event> findAllBy(Pageable pageable);
+
+    List<Event> findByEventIdLessThanOrderByEventIdDesc(Long cursor, Limit limit);
+
+    List<Event> findByCreatedAtGreaterThanEqualOrderByEventIdDesc(LocalDateTime since, Limit limit);
 }
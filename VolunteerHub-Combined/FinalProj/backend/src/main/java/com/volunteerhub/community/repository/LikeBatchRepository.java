@@ -0,0 +1,13 @@
+package com.volunteerhub.community.repository;
+
+import com.volunteerhub.community.dto.redis.LikeSyncEvent;
+
+import java.util.Collection;
+
+public interface LikeBatchRepository {
+    /**
+     * Ghi một batch like/unlike đã gộp trong một transaction:
+     * INSERT ... ON CONFLICT DO NOTHING cho like, DELETE cho unlike.
+     */
+    void applyLikeChanges(Collection<LikeSyncEvent> likes, Collection<LikeSyncEvent> unlikes);
+}
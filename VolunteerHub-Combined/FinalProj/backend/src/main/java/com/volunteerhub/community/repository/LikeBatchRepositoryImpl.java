@@ -0,0 +1,64 @@
+package com.volunteerhub.community.repository;
+
+import com.volunteerhub.community.dto.redis.LikeSyncEvent;
+import com.volunteerhub.community.model.db_enum.TableType;
+import com.volunteerhub.ultis.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class LikeBatchRepositoryImpl implements LikeBatchRepository {
+
+    private static final String INSERT_LIKE = """
+            INSERT INTO likes (like_id, target_id, target_type, created_by, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String DELETE_LIKE = """
+            DELETE FROM likes
+            WHERE created_by = ? AND target_type = ? AND target_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SnowflakeIdGenerator idGenerator;
+
+    @Override
+    @Transactional
+    public void applyLikeChanges(Collection<LikeSyncEvent> likes, Collection<LikeSyncEvent> unlikes) {
+        if (!likes.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(likes.size());
+            for (LikeSyncEvent like : likes) {
+                rows.add(new Object[]{
+                        idGenerator.nextId(),
+                        like.getTargetId(),
+                        TableType.valueOf(like.getTableType().toUpperCase()).name(),
+                        like.getUserId(),
+                        // thời điểm bấm like ghi trong stream, không phải lúc worker ghi xuống
+                        like.getTimestamp() != null ? Timestamp.from(like.getTimestamp().toInstant()) : now
+                });
+            }
+            jdbcTemplate.batchUpdate(INSERT_LIKE, rows);
+        }
+
+        if (!unlikes.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(unlikes.size());
+            for (LikeSyncEvent unlike : unlikes) {
+                rows.add(new Object[]{
+                        unlike.getUserId(),
+                        TableType.valueOf(unlike.getTableType().toUpperCase()).name(),
+                        unlike.getTargetId()
+                });
+            }
+            jdbcTemplate.batchUpdate(DELETE_LIKE, rows);
+        }
+    }
+}
@@ -3,11 +3,23 @@ package com.volunteerhub.community.repository;
 import com.volunteerhub.community.model.Like;
 import com.volunteerhub.community.model.db_enum.TableType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface LikeRepository extends JpaRepository<Like, Long> {
+public interface LikeRepository extends JpaRepository<Like, Long>, LikeBatchRepository {
     Optional<Like> findByTargetIdAndTableType(Long targetId, TableType tableType);
     boolean existsByTargetIdAndTableTypeAndCreatedBy_UserId(Long targetId, TableType tableType, UUID userId);
+
+    @Query("""
+            SELECT l.targetId FROM Like l
+            WHERE l.createdBy.userId = :userId AND l.tableType = :tableType AND l.targetId IN :targetIds
+            """)
+    List<Long> findLikedTargetIds(@Param("userId") UUID userId,
+                                  @Param("tableType") TableType tableType,
+                                  @Param("targetIds") Collection<Long> targetIds);
 }
@@ -1,15 +1,22 @@
 package com.volunteerhub.community.repository;
 
 import com.volunteerhub.community.model.Post;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
-    Page<Post> findByEvent_EventId(Long eventId, Pageable pageable);
-    Page<Post> findByEvent_EventIdIn(List<Long> eventIds, Pageable pageable);
+    Slice<Post> findAllBy(Pageable pageable);
+    Slice<Post> findByEvent_EventId(Long eventId, Pageable pageable);
     long countByCreatedBy_UserId(UUID userId);
+    long countByEventId(Long eventId);
+
+    List<Post> findByPostIdLessThanOrderByPostIdDesc(Long cursor, Limit limit);
+    List<Post> findByEventIdAndPostIdLessThanOrderByPostIdDesc(Long eventId, Long cursor, Limit limit);
+    List<Post> findByEventIdInOrderByPostIdDesc(Collection<Long> eventIds, Limit limit);
 }
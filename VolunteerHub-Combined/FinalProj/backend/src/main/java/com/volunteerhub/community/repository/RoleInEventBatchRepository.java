@@ -0,0 +1,19 @@
+package com.volunteerhub.community.repository;
+
+import com.volunteerhub.community.dto.RegistrationApproval;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RoleInEventBatchRepository {
+    /**
+     * Duyệt các đăng ký thuộc eventId trong một câu INSERT ... SELECT ... ON CONFLICT DO NOTHING.
+     * Id không thuộc event (hoặc không tồn tại) không có trong kết quả.
+     */
+    List<RegistrationApproval> approveRegistrations(Long eventId, Collection<Long> registrationIds);
+
+    /**
+     * Duyệt mọi đăng ký của event chưa có role, theo thứ tự registrationId.
+     */
+    List<RegistrationApproval> approveAllPending(Long eventId);
+}
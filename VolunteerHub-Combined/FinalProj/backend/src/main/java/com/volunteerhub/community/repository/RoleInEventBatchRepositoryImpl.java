@@ -0,0 +1,100 @@
+package com.volunteerhub.community.repository;
+
+import com.volunteerhub.community.dto.RegistrationApproval;
+import com.volunteerhub.ultis.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class RoleInEventBatchRepositoryImpl implements RoleInEventBatchRepository {
+
+    /*
+     * candidates: đăng ký cần duyệt, đánh số theo registration_id để ghép với id đã cấp sẵn (unnest ... WITH ORDINALITY).
+     * inserted  : ON CONFLICT bỏ qua user đã có role trong event.
+     * Kết quả: mỗi candidate một dòng, approved = có dòng role_in_event mới.
+     */
+    private static final String APPROVE_TEMPLATE = """
+            WITH candidates AS (
+                SELECT r.registration_id, r.user_id, r.event_id,
+                       row_number() OVER (ORDER BY r.registration_id) AS rn
+                FROM event_registration r
+                WHERE r.event_id = ? AND %s
+                ORDER BY r.registration_id
+                LIMIT ?
+            ),
+            inserted AS (
+                INSERT INTO role_in_event (id, user_profile_id, event_id, created_at, updated_at,
+                                           event_role, participation_status)
+                SELECT ids.id, c.user_id, c.event_id, now(), now(), 'EVENT_MEMBER', 'APPROVED'
+                FROM candidates c
+                JOIN unnest(?::bigint[]) WITH ORDINALITY AS ids(id, ord) ON ids.ord = c.rn
+                ON CONFLICT (user_profile_id, event_id) DO NOTHING
+                RETURNING user_profile_id
+            )
+            SELECT c.registration_id, c.user_id, i.user_profile_id IS NOT NULL AS approved
+            FROM candidates c
+            LEFT JOIN inserted i ON i.user_profile_id = c.user_id
+            ORDER BY c.registration_id
+            """;
+
+    private static final String APPROVE_BY_IDS = APPROVE_TEMPLATE.formatted("r.registration_id = ANY (?::bigint[])");
+
+    private static final String PENDING_FILTER = """
+            NOT EXISTS (
+                SELECT 1 FROM role_in_event ri
+                WHERE ri.event_id = r.event_id AND ri.user_profile_id = r.user_id
+            )""";
+
+    private static final String APPROVE_PENDING = APPROVE_TEMPLATE.formatted(PENDING_FILTER);
+
+    private static final String COUNT_PENDING =
+            "SELECT COUNT(*) FROM event_registration r WHERE r.event_id = ? AND " + PENDING_FILTER;
+
+    // nextIds cấp tối đa 2^sequenceBits id mỗi lần
+    private static final int ID_CHUNK = 1024;
+
+    private static final RowMapper<RegistrationApproval> ROW_MAPPER = (rs, rowNum) -> new RegistrationApproval(
+            rs.getLong("registration_id"),
+            rs.getObject("user_id", UUID.class),
+            rs.getBoolean("approved"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SnowflakeIdGenerator idGenerator;
+
+    @Override
+    public List<RegistrationApproval> approveRegistrations(Long eventId, Collection<Long> registrationIds) {
+        if (registrationIds.isEmpty()) return List.of();
+
+        Long[] ids = registrationIds.stream().distinct().toArray(Long[]::new);
+        long[] roleIds = reserveIds(ids.length);
+        return jdbcTemplate.query(APPROVE_BY_IDS, ROW_MAPPER, eventId, ids, ids.length, roleIds);
+    }
+
+    @Override
+    public List<RegistrationApproval> approveAllPending(Long eventId) {
+        Long pending = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class, eventId);
+        if (pending == null || pending == 0) return List.of();
+
+        // đăng ký mới đến sau câu COUNT sẽ nằm ngoài LIMIT và chờ lượt duyệt sau
+        int limit = Math.toIntExact(pending);
+        long[] roleIds = reserveIds(limit);
+        return jdbcTemplate.query(APPROVE_PENDING, ROW_MAPPER, eventId, limit, roleIds);
+    }
+
+    /**
+     * Cấp sẵn n id cho cả batch, mỗi khối ID_CHUNK id chỉ tốn một CAS.
+     */
+    private long[] reserveIds(int n) {
+        long[] ids = new long[n];
+        for (int from = 0; from < n; from += ID_CHUNK) {
+            int size = Math.min(ID_CHUNK, n - from);
+            System.arraycopy(idGenerator.nextIds(size), 0, ids, from, size);
+        }
+        return ids;
+    }
+}
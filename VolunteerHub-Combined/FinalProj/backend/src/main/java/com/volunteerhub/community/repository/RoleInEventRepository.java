@@ -7,7 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Collection;
 import java.util.UUID;
 
-public interface RoleInEventRepository extends JpaRepository<RoleInEvent, Long> {
+public interface RoleInEventRepository extends JpaRepository<RoleInEvent, Long>, RoleInEventBatchRepository {
     boolean existsByUserProfile_UserIdAndEvent_EventIdAndParticipationStatusIn(
             UUID userProfile_userId, Long event_eventId, Collection<ParticipationStatus> participationStatus);
 }
@@ -1,12 +1,17 @@
 package com.volunteerhub.community.repository;
 
 import com.volunteerhub.community.model.UserProfile;
+import com.volunteerhub.community.model.UserProfileMini;
 import com.volunteerhub.community.model.db_enum.UserStatus;
 import io.lettuce.core.dynamic.annotation.Param;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,7 +20,13 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, UUID>
 
     Optional<UserProfile> findByUsername(String username);
 
+    Slice<UserProfile> findAllBy(Pageable pageable);
+
     @Modifying
     @Query("UPDATE UserProfile u SET u.status = :status WHERE u.userId = :userId")
     int updateStatus(@Param("userId") UUID userId, @Param("status") UserStatus status);
+
+    @Query("SELECT new com.volunteerhub.community.model.UserProfileMini(u.userId, u.username, u.avatarId) " +
+            "FROM UserProfile u WHERE u.userId IN :userIds")
+    List<UserProfileMini> findMiniByUserIdIn(@Param("userIds") Collection<UUID> userIds);
 }
@@ -0,0 +1,196 @@
+package com.volunteerhub.community.service.cache_service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.volunteerhub.community.dto.redis.EventSnapshot;
+import com.volunteerhub.community.dto.redis.PostSnapshot;
+import com.volunteerhub.community.model.Event;
+import com.volunteerhub.community.model.Post;
+import com.volunteerhub.community.repository.EventRepository;
+import com.volunteerhub.community.repository.PostRepository;
+import com.volunteerhub.ultis.SmileCodec;
+import com.volunteerhub.ultis.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache cho getEvent / getPost: Caffeine (local) -> Redis (SmileCodec) -> Postgres.
+ * Ghi (edit/approve/reject/delete) xoá cả hai tầng sau khi commit và broadcast
+ * qua pub/sub để các node khác xoá bản local.
+ * <p>
+ * Xoá Redis kèm marker :evicted sống evict-guard: reader đã đọc bản cũ từ DB trước commit
+ * mà ghi lại Redis sau lúc xoá thì bị chặn, không đưa bản cũ trở lại trong cả redis-ttl.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DetailCache implements MessageListener {
+    private static final String EVENT = "event";
+    private static final String POST = "post";
+
+    // KEYS[1] = cache key, KEYS[2] = marker; ARGV = snapshot, ttl (ms)
+    private static final DefaultRedisScript<Long> WRITE_BACK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    // KEYS[1] = cache key, KEYS[2] = marker; ARGV = thời gian chặn ghi lại (ms)
+    private static final DefaultRedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SET', KEYS[2], '1', 'PX', ARGV[1])
+            return redis.call('DEL', KEYS[1])
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final EventRepository eventRepository;
+    private final PostRepository postRepository;
+
+    @Value("${cache.detail.channel:cache:detail:invalidate}")
+    private String channel;
+
+    @Value("${cache.detail.redis-ttl:10m}")
+    private Duration redisTtl;
+
+    @Value("${cache.detail.evict-guard:5s}")
+    private Duration evictGuard;
+
+    // local ngắn hơn Redis: nếu lỡ mất message invalidate thì cũng chỉ cũ tối đa chừng này
+    private final Cache<Long, EventSnapshot> events = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(60))
+            .recordStats()
+            .build();
+
+    private final Cache<Long, PostSnapshot> posts = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .expireAfterWrite(Duration.ofSeconds(60))
+            .recordStats()
+            .build();
+
+    @PostConstruct
+    public void init() {
+        CaffeineCacheMetrics.monitor(meterRegistry, events, "detail.event");
+        CaffeineCacheMetrics.monitor(meterRegistry, posts, "detail.post");
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    public Event getEvent(Long eventId) {
+        EventSnapshot snapshot = read(events, EVENT, eventId, EventSnapshot.class,
+                id -> eventRepository.findById(id).map(EventSnapshot::from));
+        return snapshot != null ? snapshot.toEvent() : null;
+    }
+
+    public Post getPost(Long postId) {
+        PostSnapshot snapshot = read(posts, POST, postId, PostSnapshot.class,
+                id -> postRepository.findById(id).map(PostSnapshot::from));
+        return snapshot != null ? snapshot.toPost() : null;
+    }
+
+    public void evictEvent(Long eventId) {
+        evict(EVENT, eventId);
+    }
+
+    public void evictPost(Long postId) {
+        evict(POST, postId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // payload = "<kind>:<id>"
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int sep = body.indexOf(':');
+        if (sep < 0) return;
+
+        try {
+            invalidateLocal(body.substring(0, sep), Long.valueOf(body.substring(sep + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed cache invalidation {}", body);
+        }
+    }
+
+    private <S> S read(Cache<Long, S> local, String kind, Long id, Class<S> type,
+                       Function<Long, Optional<S>> database) {
+        if (id == null) return null;
+
+        return local.get(id, key -> {
+            String redisKey = redisKey(kind, key);
+            try {
+                byte[] bytes = binaryRedisTemplate.opsForValue().get(redisKey);
+                if (bytes != null) {
+                    meterRegistry.counter("detail.cache.redis", "cache", kind, "result", "hit").increment();
+                    return SmileCodec.decode(bytes, type);
+                }
+            } catch (Exception e) {
+                log.warn("Cannot read {} from Redis: {}", redisKey, e.getMessage());
+            }
+            meterRegistry.counter("detail.cache.redis", "cache", kind, "result", "miss").increment();
+
+            S snapshot = database.apply(key).orElse(null);
+            if (snapshot != null) {
+                try {
+                    Long written = binaryRedisTemplate.execute(WRITE_BACK_SCRIPT,
+                            RedisSerializer.byteArray(), new GenericToStringSerializer<>(Long.class),
+                            List.of(redisKey, redisKey + ":evicted"),
+                            SmileCodec.encode(snapshot), bytes(String.valueOf(redisTtl.toMillis())));
+                    if (written == null || written == 0L) {
+                        meterRegistry.counter("detail.cache.redis", "cache", kind, "result", "write-blocked").increment();
+                    }
+                } catch (Exception e) {
+                    log.warn("Cannot write {} to Redis: {}", redisKey, e.getMessage());
+                }
+            }
+            return snapshot;
+        });
+    }
+
+    private void evict(String kind, Long id) {
+        TransactionUtils.afterCommit(() -> {
+            invalidateLocal(kind, id);
+            String redisKey = redisKey(kind, id);
+            stringRedisTemplate.execute(EVICT_SCRIPT, List.of(redisKey, redisKey + ":evicted"),
+                    String.valueOf(evictGuard.toMillis()));
+            stringRedisTemplate.convertAndSend(channel, kind + ":" + id);
+        });
+    }
+
+    private void invalidateLocal(String kind, Long id) {
+        switch (kind) {
+            case EVENT -> events.invalidate(id);
+            case POST -> posts.invalidate(id);
+            default -> log.warn("Unknown cache kind {}", kind);
+        }
+    }
+
+    private static String redisKey(String kind, Long id) {
+        return "cache:" + kind + ":" + id;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,46 @@
+package com.volunteerhub.community.service.cache_service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.volunteerhub.community.model.UserProfileMini;
+import com.volunteerhub.community.repository.UserProfileRepository;
+import com.volunteerhub.ultis.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Near cache cho UserProfileMini (username, avatar ít khi đổi).
+ * Miss được gom lại thành một query WHERE user_id IN (...).
+ */
+@Service
+@RequiredArgsConstructor
+public class UserProfileMiniCache {
+
+    private final UserProfileRepository userProfileRepository;
+
+    private final Cache<UUID, UserProfileMini> cache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    public Map<UUID, UserProfileMini> getAll(Collection<UUID> userIds) {
+        return cache.getAll(userIds, missing -> userProfileRepository.findMiniByUserIdIn(Set.copyOf(missing))
+                .stream()
+                .collect(Collectors.toMap(UserProfileMini::getUserId, Function.identity())));
+    }
+
+    /**
+     * Xoá entry sau khi transaction hiện tại commit, tránh nạp lại dữ liệu cũ.
+     */
+    public void evict(UUID userId) {
+        TransactionUtils.afterCommit(() -> cache.invalidate(userId));
+    }
+}
@@ -0,0 +1,50 @@
+package com.volunteerhub.community.service.redis_service;
+
+import java.util.UUID;
+
+/**
+ * Các cột counter lưu trên dòng (migration V3). Whitelist bảng/cột cho câu UPDATE của CounterRollupWorker,
+ * kèm câu GROUP BY (giống backfill của V3) để sửa lại các dòng bị lệch.
+ */
+public enum CounterColumn {
+    USER_EVENT_COUNT("user_profiles", "event_count", "user_id", true,
+            "SELECT user_id AS id, COUNT(*) AS total FROM event_registration GROUP BY user_id"),
+    USER_POST_COUNT("user_profiles", "post_count", "user_id", true,
+            "SELECT created_by AS id, COUNT(*) AS total FROM posts GROUP BY created_by"),
+    USER_COMMENT_COUNT("user_profiles", "comment_count", "user_id", true,
+            "SELECT created_by AS id, COUNT(*) AS total FROM comments GROUP BY created_by"),
+    EVENT_MEMBER_COUNT("events", "member_count", "event_id", false,
+            "SELECT event_id AS id, COUNT(*) AS total FROM role_in_event "
+                    + "WHERE participation_status IN ('APPROVED', 'COMPLETED') GROUP BY event_id"),
+    EVENT_POST_COUNT("events", "post_count", "event_id", false,
+            "SELECT event_id AS id, COUNT(*) AS total FROM posts GROUP BY event_id"),
+    POST_COMMENT_COUNT("posts", "comment_count", "post_id", false,
+            "SELECT post_id AS id, COUNT(*) AS total FROM comments GROUP BY post_id");
+
+    private final String updateSql;
+    private final String repairSql;
+    private final boolean uuidKey;
+
+    CounterColumn(String table, String column, String idColumn, boolean uuidKey, String countSql) {
+        // không để counter âm nếu delta đến trước backfill / bị lặp
+        this.updateSql = "UPDATE " + table + " SET " + column + " = GREATEST(" + column + " + ?, 0) WHERE " + idColumn + " = ?";
+        // chỉ ghi các dòng lệch, kể cả dòng không còn bản ghi nào (COUNT = 0)
+        this.repairSql = "UPDATE " + table + " t SET " + column + " = COALESCE(s.total, 0)"
+                + " FROM " + table + " t2 LEFT JOIN (" + countSql + ") s ON s.id = t2." + idColumn
+                + " WHERE t." + idColumn + " = t2." + idColumn
+                + " AND t." + column + " <> COALESCE(s.total, 0)";
+        this.uuidKey = uuidKey;
+    }
+
+    public String updateSql() {
+        return updateSql;
+    }
+
+    public String repairSql() {
+        return repairSql;
+    }
+
+    public Object parseId(String raw) {
+        return uuidKey ? UUID.fromString(raw) : Long.valueOf(raw);
+    }
+}
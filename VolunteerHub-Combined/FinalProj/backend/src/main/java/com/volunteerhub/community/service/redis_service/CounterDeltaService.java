@@ -0,0 +1,81 @@
+package com.volunteerhub.community.service.redis_service;
+
+import com.volunteerhub.ultis.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Đẩy delta của các cột counter vào stream sau khi transaction commit,
+ * CounterRollupWorker gom lại và ghi xuống Postgres theo lô.
+ * Mỗi delta mang txid của transaction ghi để CounterRollupWorker biết lượt repair đã đếm dòng đó hay chưa.
+ */
+@Service
+@RequiredArgsConstructor
+public class CounterDeltaService {
+    private static final String CURRENT_TXID_SQL = "SELECT pg_current_xact_id()::text";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${redis.counter-event:counter-event}")
+    private String counterEvent;
+
+    public void postCreated(UUID userId, Long eventId) {
+        publish(Map.of(CounterColumn.USER_POST_COUNT, userId, CounterColumn.EVENT_POST_COUNT, eventId), 1);
+    }
+
+    public void postDeleted(UUID userId, Long eventId) {
+        publish(Map.of(CounterColumn.USER_POST_COUNT, userId, CounterColumn.EVENT_POST_COUNT, eventId), -1);
+    }
+
+    public void commentCreated(UUID userId, Long postId) {
+        publish(Map.of(CounterColumn.USER_COMMENT_COUNT, userId, CounterColumn.POST_COMMENT_COUNT, postId), 1);
+    }
+
+    public void commentDeleted(UUID userId, Long postId) {
+        publish(Map.of(CounterColumn.USER_COMMENT_COUNT, userId, CounterColumn.POST_COMMENT_COUNT, postId), -1);
+    }
+
+    public void registrationCreated(UUID userId) {
+        publish(Map.of(CounterColumn.USER_EVENT_COUNT, userId), 1);
+    }
+
+    public void registrationRemoved(UUID userId) {
+        publish(Map.of(CounterColumn.USER_EVENT_COUNT, userId), -1);
+    }
+
+    public void memberAdded(Long eventId) {
+        publish(Map.of(CounterColumn.EVENT_MEMBER_COUNT, eventId), 1);
+    }
+
+    public void membersAdded(Long eventId, int count) {
+        publish(Map.of(CounterColumn.EVENT_MEMBER_COUNT, eventId), count);
+    }
+
+    public void memberRemoved(Long eventId) {
+        publish(Map.of(CounterColumn.EVENT_MEMBER_COUNT, eventId), -1);
+    }
+
+    private void publish(Map<CounterColumn, Object> targets, int delta) {
+        // lấy trước khi commit, trong cùng transaction với câu ghi
+        String txid = jdbcTemplate.queryForObject(CURRENT_TXID_SQL, String.class);
+
+        TransactionUtils.afterCommit(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            targets.forEach((column, id) -> conn.xAdd(counterEvent, Map.of(
+                    "column", column.name(),
+                    "id", id.toString(),
+                    "delta", String.valueOf(delta),
+                    "txid", txid)));
+            return null;
+        }));
+    }
+}
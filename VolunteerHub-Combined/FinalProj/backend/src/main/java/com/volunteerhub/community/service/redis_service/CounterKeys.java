@@ -0,0 +1,50 @@
+package com.volunteerhub.community.service.redis_service;
+
+/**
+ * Tên key duy nhất cho mọi counter trên Redis, dùng chung cho phía ghi, phía đọc và reconciler.
+ * <ul>
+ *     <li>likes:{type}:{id}       SET userId (type viết thường: post, comment, event)</li>
+ *     <li>likes:{type}:{id}:empty STRING tombstone khi unlike làm set rỗng, reconciler không nạp lại target này</li>
+ *     <li>members:event:{eventId} SET userId có role APPROVED/COMPLETED</li>
+ *     <li>posts:event:{eventId}   STRING counter</li>
+ *     <li>comments:post:{postId}  STRING counter</li>
+ *     <li>seats:event:{eventId}   SET userId đang giữ chỗ ở event có capacity (kèm phần tử '_' đánh dấu đã nạp),
+ *                                 giữ nguyên khi event bỏ capacity</li>
+ *     <li>seats:pending           ZSET eventId:userId theo thời điểm giữ chỗ, chưa ghi xuống DB</li>
+ * </ul>
+ */
+public class CounterKeys {
+    public static final String MEMBERS_PATTERN = "members:event:*";
+    public static final String POSTS_PATTERN = "posts:event:*";
+    public static final String COMMENTS_PATTERN = "comments:post:*";
+    public static final String SEATS_PENDING = "seats:pending";
+
+    public static String likes(String tableType, Long targetId) {
+        return "likes:" + tableType.toLowerCase() + ":" + targetId;
+    }
+
+    public static String likesEmpty(String tableType, Long targetId) {
+        return likes(tableType, targetId) + ":empty";
+    }
+
+    public static String members(Long eventId) {
+        return "members:event:" + eventId;
+    }
+
+    public static String posts(Long eventId) {
+        return "posts:event:" + eventId;
+    }
+
+    public static String comments(Long postId) {
+        return "comments:post:" + postId;
+    }
+
+    public static String seats(Long eventId) {
+        return "seats:event:" + eventId;
+    }
+
+    // phần tử của SEATS_PENDING
+    public static String pendingSeat(Long eventId, String userId) {
+        return eventId + ":" + userId;
+    }
+}
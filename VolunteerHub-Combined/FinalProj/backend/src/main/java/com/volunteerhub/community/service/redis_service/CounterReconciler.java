@@ -0,0 +1,245 @@
+package com.volunteerhub.community.service.redis_service;
+
+import com.volunteerhub.ultis.RedisLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Định kỳ tính lại counter từ Postgres (mỗi loại một câu GROUP BY) và ghi đè lên Redis,
+ * sửa các chỗ lệch do INCR/DECR bị mất (Redis restart, node chết giữa commit và afterCommit...).
+ * <p>
+ * Likes thì ngược lại: Redis là nguồn ghi trước, bảng likes đi sau qua LikeSyncWorker,
+ * nên chỉ nạp lại các set likes chưa từng có trên Redis: duyệt target theo keyset từng trang,
+ * bỏ qua target còn set hoặc còn tombstone (unlike cuối cùng chưa được ghi xuống DB).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CounterReconciler {
+    private static final String LOCK_KEY = "lock:counter-reconcile";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(2);
+    private static final int CHUNK = 1000;
+
+    private static final String POSTS_SQL =
+            "SELECT event_id, COUNT(*) FROM posts GROUP BY event_id";
+    private static final String COMMENTS_SQL =
+            "SELECT post_id, COUNT(*) FROM comments GROUP BY post_id";
+    private static final String MEMBERS_SQL = """
+            SELECT event_id, array_agg(user_profile_id::text)
+            FROM role_in_event
+            WHERE participation_status IN ('APPROVED', 'COMPLETED')
+            GROUP BY event_id
+            """;
+    // keyset trên idx_likes_target, mỗi lượt chỉ đọc một trang target
+    private static final String LIKE_TARGETS_SQL = """
+            SELECT target_type, target_id
+            FROM likes
+            WHERE (target_type, target_id) > (?, ?)
+            GROUP BY target_type, target_id
+            ORDER BY target_type, target_id
+            LIMIT ?
+            """;
+    private static final String LIKES_SQL = """
+            SELECT l.target_type, l.target_id, array_agg(l.created_by::text)
+            FROM likes l
+            JOIN unnest(?::text[], ?::bigint[]) AS t(target_type, target_id)
+              ON l.target_type = t.target_type AND l.target_id = t.target_id
+            GROUP BY l.target_type, l.target_id
+            """;
+
+    /**
+     * KEYS[1] = set likes, KEYS[2] = tombstone, KEYS[3] = set tạm đã nạp từ DB.
+     * Chỉ RENAME khi set vẫn chưa có và không có tombstone, kiểm tra và ghi trong cùng một script
+     * nên toggle chen vào giữa không bị ghi đè.
+     */
+    private static final DefaultRedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 and redis.call('EXISTS', KEYS[2]) == 0 then
+                redis.call('RENAME', KEYS[3], KEYS[1])
+                return 1
+            end
+            redis.call('DEL', KEYS[3])
+            return 0
+            """, Long.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${counters.reconcile-page-size:1000}")
+    private int pageSize;
+
+    @Scheduled(initialDelay = 10_000, fixedDelayString = "${counters.reconcile-ms:300000}")
+    public void reconcile() {
+        // nhiều node: chỉ một node chạy mỗi lượt
+        String token = RedisLock.tryAcquire(redisTemplate, LOCK_KEY, LOCK_TTL);
+        if (token == null) return;
+
+        try {
+            long start = System.currentTimeMillis();
+            int posts = reconcileCounters(POSTS_SQL, CounterKeys::posts, CounterKeys.POSTS_PATTERN);
+            int comments = reconcileCounters(COMMENTS_SQL, CounterKeys::comments, CounterKeys.COMMENTS_PATTERN);
+            int members = reconcileMembers();
+            int likes = seedMissingLikes();
+            log.info("Counters reconciled in {}ms: {} post, {} comment, {} member, {} like keys",
+                    System.currentTimeMillis() - start, posts, comments, members, likes);
+        } catch (Exception e) {
+            log.error("Counter reconciliation failed", e);
+        } finally {
+            RedisLock.release(redisTemplate, LOCK_KEY, token);
+        }
+    }
+
+    private int reconcileCounters(String sql, Function<Long, String> keyOf, String pattern) {
+        Map<String, String> expected = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            expected.put(keyOf.apply(rs.getLong(1)), String.valueOf(rs.getLong(2)));
+        });
+
+        for (List<Map.Entry<String, String>> chunk : chunks(expected.entrySet())) {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                chunk.forEach(entry -> conn.set(entry.getKey(), entry.getValue()));
+                return null;
+            });
+        }
+
+        deleteStale(pattern, expected.keySet());
+        return expected.size();
+    }
+
+    private int reconcileMembers() {
+        Map<String, String[]> expected = new HashMap<>();
+        jdbcTemplate.query(MEMBERS_SQL, rs -> {
+            expected.put(CounterKeys.members(rs.getLong(1)), toStrings(rs.getArray(2)));
+        });
+
+        for (List<Map.Entry<String, String[]>> chunk : chunks(expected.entrySet())) {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (Map.Entry<String, String[]> entry : chunk) {
+                    // dựng set tạm rồi RENAME để phía đọc không thấy set rỗng giữa chừng
+                    String tmp = entry.getKey() + ":rebuild";
+                    conn.del(tmp);
+                    conn.sAdd(tmp, entry.getValue());
+                    conn.rename(tmp, entry.getKey());
+                }
+                return null;
+            });
+        }
+
+        deleteStale(CounterKeys.MEMBERS_PATTERN, expected.keySet());
+        return expected.size();
+    }
+
+    private int seedMissingLikes() {
+        String lastType = "";
+        long lastId = Long.MIN_VALUE;
+        int seeded = 0;
+
+        while (true) {
+            List<LikeTarget> page = jdbcTemplate.query(LIKE_TARGETS_SQL,
+                    (rs, rowNum) -> new LikeTarget(rs.getString(1), rs.getLong(2)),
+                    lastType, lastId, pageSize);
+            if (page.isEmpty()) break;
+
+            seeded += seed(page);
+
+            LikeTarget last = page.get(page.size() - 1);
+            lastType = last.type();
+            lastId = last.id();
+            if (page.size() < pageSize) break;
+        }
+        return seeded;
+    }
+
+    private int seed(List<LikeTarget> page) {
+        List<Object> exists = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LikeTarget target : page) {
+                conn.exists(CounterKeys.likes(target.type(), target.id()));
+                conn.exists(CounterKeys.likesEmpty(target.type(), target.id()));
+            }
+            return null;
+        });
+
+        List<LikeTarget> missing = new ArrayList<>();
+        for (int i = 0; i < page.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(2 * i)) && !Boolean.TRUE.equals(exists.get(2 * i + 1))) {
+                missing.add(page.get(i));
+            }
+        }
+        if (missing.isEmpty()) return 0;
+
+        Map<LikeTarget, String[]> persisted = new HashMap<>();
+        jdbcTemplate.query(LIKES_SQL, rs -> {
+                    persisted.put(new LikeTarget(rs.getString(1), rs.getLong(2)), toStrings(rs.getArray(3)));
+                },
+                missing.stream().map(LikeTarget::type).toArray(String[]::new),
+                missing.stream().map(LikeTarget::id).toArray(Long[]::new));
+
+        int seeded = 0;
+        for (Map.Entry<LikeTarget, String[]> entry : persisted.entrySet()) {
+            String key = CounterKeys.likes(entry.getKey().type(), entry.getKey().id());
+            String tmp = key + ":rebuild";
+            redisTemplate.delete(tmp);
+            redisTemplate.opsForSet().add(tmp, entry.getValue());
+
+            Long result = redisTemplate.execute(SEED_SCRIPT,
+                    List.of(key, CounterKeys.likesEmpty(entry.getKey().type(), entry.getKey().id()), tmp));
+            if (result != null && result == 1L) seeded++;
+        }
+        return seeded;
+    }
+
+    /**
+     * Key còn trên Redis nhưng không còn dòng nào trong DB (post/comment/member đã bị xoá hết).
+     */
+    private void deleteStale(String pattern, Set<String> expected) {
+        List<String> stale = new ArrayList<>();
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(CHUNK).build())) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (!expected.contains(key) && !key.endsWith(":rebuild")) stale.add(key);
+            }
+        }
+
+        for (List<String> chunk : chunks(stale)) {
+            redisTemplate.delete(chunk);
+        }
+    }
+
+    private static String[] toStrings(Array array) throws SQLException {
+        try {
+            return (String[]) array.getArray();
+        } finally {
+            array.free();
+        }
+    }
+
+    private record LikeTarget(String type, long id) {
+    }
+
+    private static <T> List<List<T>> chunks(Collection<T> items) {
+        List<T> all = new ArrayList<>(items);
+        List<List<T>> result = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += CHUNK) {
+            result.add(all.subList(i, Math.min(i + CHUNK, all.size())));
+        }
+        return result;
+    }
+}
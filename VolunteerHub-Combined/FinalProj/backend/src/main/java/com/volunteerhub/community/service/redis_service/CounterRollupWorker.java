@@ -0,0 +1,279 @@
+package com.volunteerhub.community.service.redis_service;
+
+import com.volunteerhub.ultis.RedisLock;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Gom delta trong stream counter-event theo (cột, id) rồi ghi xuống Postgres bằng
+ * batch UPDATE ... SET x = x + ? mỗi vài trăm ms, thay cho COUNT(*) lúc đọc.
+ * <ul>
+ *     <li>giao nhận at-least-once: entry chỉ được ACK sau khi transaction commit</li>
+ *     <li>stream id được ghi vào counter_rollup_applied trong cùng transaction, entry giao lại thì bỏ qua</li>
+ *     <li>delta bị mất (Redis lỗi trong afterCommit) được sửa bằng lượt repair GROUP BY định kỳ</li>
+ *     <li>repair ghi lại snapshot nó đã đếm (counter_repair_snapshot); delta có txid nằm trong snapshot đó
+ *         đã được tính trong GROUP BY nên không cộng nữa, kể cả delta XADD tới sau khi repair xong</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CounterRollupWorker {
+    private static final Duration CLAIM_MIN_IDLE = Duration.ofMinutes(1);
+    private static final String REPAIR_LOCK_KEY = "lock:counter-repair";
+    private static final Duration REPAIR_LOCK_TTL = Duration.ofMinutes(10);
+
+    // trả về các stream id chưa từng được cộng
+    private static final String MARK_APPLIED_SQL = """
+            INSERT INTO counter_rollup_applied (stream_id)
+            SELECT unnest(?::text[])
+            ON CONFLICT (stream_id) DO NOTHING
+            RETURNING stream_id
+            """;
+    // giữ snapshot của các cột trong batch, repair không đổi được cho tới khi batch commit
+    private static final String LOCK_REPAIR_SNAPSHOT_SQL =
+            "SELECT column_name FROM counter_repair_snapshot WHERE column_name = ANY(?::text[]) FOR SHARE";
+    // delta mà lượt repair gần nhất của cột đã đếm
+    private static final String COUNTED_BY_REPAIR_SQL = """
+            SELECT d.stream_id
+            FROM unnest(?::text[], ?::text[], ?::text[]) AS d(stream_id, column_name, txid)
+            JOIN counter_repair_snapshot s ON s.column_name = d.column_name
+            WHERE pg_visible_in_snapshot(d.txid::xid8, s.snapshot::pg_snapshot)
+            """;
+    // câu đầu tiên của transaction repair: snapshot ghi lại chính là snapshot mà câu GROUP BY sau đó đọc
+    private static final String RECORD_REPAIR_SNAPSHOT_SQL = """
+            UPDATE counter_repair_snapshot SET snapshot = pg_current_snapshot()::text, repaired_at = now()
+            WHERE column_name = ?
+            """;
+    private static final String PURGE_APPLIED_SQL =
+            "DELETE FROM counter_rollup_applied WHERE applied_at < now() - make_interval(secs => ?)";
+
+    @Value("${redis.counter-event:counter-event}")
+    private String counterEvent;
+
+    @Value("${redis.counter-group:counter-group}")
+    private String counterGroup;
+
+    @Value("${counters.rollup-batch-size:2000}")
+    private int batchSize;
+
+    @Value("${counters.applied-retention:1d}")
+    private Duration appliedRetention;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // mỗi node một consumer riêng: pid@hostname
+    private final String consumerName = ManagementFactory.getRuntimeMXBean().getName();
+
+    // REPEATABLE READ: snapshot ghi vào counter_repair_snapshot và câu UPDATE repair dùng chung một snapshot
+    private TransactionTemplate repairTransaction;
+
+    private volatile boolean groupReady = false;
+
+    @PostConstruct
+    public void init() {
+        repairTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        repairTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        ensureGroup();
+    }
+
+    @Scheduled(fixedDelayString = "${counters.rollup-ms:300}")
+    public void rollUp() {
+        if (!ensureGroup()) return;
+
+        // entry đã nhận nhưng chưa ACK (lần ghi trước lỗi) được xử lý trước
+        List<MapRecord<String, Object, Object>> records = read(ReadOffset.from("0"));
+        if (records.isEmpty()) {
+            records = read(ReadOffset.lastConsumed());
+        }
+        if (records.isEmpty()) return;
+
+        apply(records);
+    }
+
+    /**
+     * Nhận lại entry pending quá lâu của consumer đã chết.
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void reclaim() {
+        if (!ensureGroup()) return;
+
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        PendingMessages pending = ops.pending(counterEvent, counterGroup, Range.unbounded(), batchSize);
+
+        RecordId[] stale = pending.stream()
+                .filter(message -> !consumerName.equals(message.getConsumerName()))
+                .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(CLAIM_MIN_IDLE) >= 0)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (stale.length == 0) return;
+
+        List<MapRecord<String, Object, Object>> claimed =
+                ops.claim(counterEvent, counterGroup, consumerName, CLAIM_MIN_IDLE, stale);
+        if (claimed.isEmpty()) return;
+
+        log.info("Reclaimed {} pending counter deltas for consumer {}", claimed.size(), consumerName);
+        apply(claimed);
+    }
+
+    /**
+     * Tính lại các cột counter bằng GROUP BY, chỉ ghi dòng bị lệch.
+     * Không cần chờ stream rỗng: delta của transaction đã nằm trong snapshot repair bị rollup bỏ qua.
+     * Batch rollup commit chen vào sau snapshot thì UPDATE repair lỗi serialization, lượt sau tính lại.
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelayString = "${counters.repair-ms:3600000}")
+    public void repair() {
+        String token = RedisLock.tryAcquire(stringRedisTemplate, REPAIR_LOCK_KEY, REPAIR_LOCK_TTL);
+        if (token == null) return;
+
+        try {
+            jdbcTemplate.update(PURGE_APPLIED_SQL, appliedRetention.toSeconds());
+
+            for (CounterColumn column : CounterColumn.values()) {
+                try {
+                    Integer repaired = repairTransaction.execute(status -> {
+                        jdbcTemplate.update(RECORD_REPAIR_SNAPSHOT_SQL, column.name());
+                        return jdbcTemplate.update(column.repairSql());
+                    });
+                    if (repaired != null && repaired > 0) {
+                        log.warn("Repaired {} drifted {} counters", repaired, column);
+                    }
+                } catch (ConcurrencyFailureException e) {
+                    log.info("Counter deltas applied during repair of {}, retrying next run", column);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Counter repair failed", e);
+        } finally {
+            RedisLock.release(stringRedisTemplate, REPAIR_LOCK_KEY, token);
+        }
+    }
+
+    private void apply(List<MapRecord<String, Object, Object>> records) {
+        List<CounterDelta> parsed = new ArrayList<>(records.size());
+        RecordId[] ids = new RecordId[records.size()];
+
+        for (int i = 0; i < records.size(); i++) {
+            MapRecord<String, Object, Object> record = records.get(i);
+            ids[i] = record.getId();
+
+            try {
+                Map<Object, Object> values = record.getValue();
+                CounterColumn column = CounterColumn.valueOf(values.get("column").toString());
+                parsed.add(new CounterDelta(
+                        record.getId().getValue(),
+                        column,
+                        column.parseId(values.get("id").toString()),
+                        Integer.parseInt(values.get("delta").toString()),
+                        // entry ghi trước khi có txid: luôn cộng
+                        values.containsKey("txid") ? values.get("txid").toString() : null));
+            } catch (Exception e) {
+                log.warn("Skipping malformed counter delta {}: {}", record.getId(), e.getMessage());
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // entry đã cộng ở lần giao trước (commit xong nhưng chưa kịp ACK) thì bỏ qua
+                Set<String> fresh = new HashSet<>(jdbcTemplate.query(MARK_APPLIED_SQL,
+                        (rs, rowNum) -> rs.getString(1),
+                        (Object) parsed.stream().map(CounterDelta::streamId).toArray(String[]::new)));
+                // repair đã đếm dòng của transaction này: cộng nữa là đếm hai lần
+                fresh.removeAll(countedByRepair(parsed.stream()
+                        .filter(delta -> fresh.contains(delta.streamId()) && delta.txid() != null)
+                        .toList()));
+
+                Map<CounterColumn, Map<Object, Integer>> deltas = new EnumMap<>(CounterColumn.class);
+                for (CounterDelta delta : parsed) {
+                    if (!fresh.contains(delta.streamId())) continue;
+                    // TreeMap: UPDATE theo thứ tự id cố định, tránh deadlock giữa các node
+                    deltas.computeIfAbsent(delta.column(), ignored -> new TreeMap<>())
+                            .merge(delta.id(), delta.delta(), Integer::sum);
+                }
+
+                deltas.forEach((column, byId) -> {
+                    List<Object[]> rows = new ArrayList<>(byId.size());
+                    byId.forEach((id, delta) -> {
+                        if (delta != 0) rows.add(new Object[]{delta, id});
+                    });
+                    if (!rows.isEmpty()) {
+                        jdbcTemplate.batchUpdate(column.updateSql(), rows);
+                    }
+                });
+            });
+        } catch (Exception e) {
+            // không ACK: entry ở lại PEL, lượt sau đọc lại từ "0"
+            log.error("Failed to roll up {} counter deltas, leaving them pending", records.size(), e);
+            return;
+        }
+
+        // đã ghi xong thì không cần giữ entry trong stream nữa
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        ops.acknowledge(counterEvent, counterGroup, ids);
+        ops.delete(counterEvent, ids);
+    }
+
+    /**
+     * @return stream id của các delta mà lượt repair gần nhất của cột đã đếm. Gọi trong transaction của batch:
+     * FOR SHARE giữ snapshot không đổi cho tới khi batch commit.
+     */
+    private List<String> countedByRepair(List<CounterDelta> deltas) {
+        if (deltas.isEmpty()) return List.of();
+
+        jdbcTemplate.queryForList(LOCK_REPAIR_SNAPSHOT_SQL, String.class,
+                (Object) deltas.stream().map(delta -> delta.column().name()).distinct().toArray(String[]::new));
+        return jdbcTemplate.queryForList(COUNTED_BY_REPAIR_SQL, String.class,
+                deltas.stream().map(CounterDelta::streamId).toArray(String[]::new),
+                deltas.stream().map(delta -> delta.column().name()).toArray(String[]::new),
+                deltas.stream().map(CounterDelta::txid).toArray(String[]::new));
+    }
+
+    private List<MapRecord<String, Object, Object>> read(ReadOffset offset) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                Consumer.from(counterGroup, consumerName),
+                StreamReadOptions.empty().count(batchSize),
+                StreamOffset.create(counterEvent, offset)
+        );
+        return records != null ? records : List.of();
+    }
+
+    private boolean ensureGroup() {
+        if (groupReady) return true;
+
+        try {
+            stringRedisTemplate.opsForStream().createGroup(counterEvent, ReadOffset.from("0"), counterGroup);
+        } catch (Exception e) {
+            // BUSYGROUP: group đã tồn tại
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (reason == null || !reason.contains("BUSYGROUP")) {
+                log.warn("Cannot create consumer group {} on {}: {}", counterGroup, counterEvent, e.getMessage());
+                return false;
+            }
+        }
+
+        groupReady = true;
+        return true;
+    }
+
+    private record CounterDelta(String streamId, CounterColumn column, Object id, int delta, String txid) {
+    }
+}
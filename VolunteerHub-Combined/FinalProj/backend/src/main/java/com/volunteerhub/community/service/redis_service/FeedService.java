@@ -0,0 +1,256 @@
+package com.volunteerhub.community.service.redis_service;
+
+import com.volunteerhub.ultis.RedisLock;
+import com.volunteerhub.ultis.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Feed dựng sẵn cho dashboard trên sorted set:
+ * <ul>
+ *     <li>feed:events:recent   score = createdAt (epoch millis)</li>
+ *     <li>feed:events:trending score = tương tác có suy giảm theo thời gian (like 1, post 3, đăng ký 5)</li>
+ *     <li>feed:posts:recent    score = createdAt (epoch millis)</li>
+ * </ul>
+ * Điểm trending được cộng dồn khi có tương tác và nhân với hệ số suy giảm theo chu kỳ,
+ * tương đương tổng trọng số * 0.5^(tuổi / half-life).
+ * <p>
+ * Mỗi feed có một key đánh dấu đã nạp từ DB ({@code :seeded}, {@code :decayed-at}). Redis mất dữ liệu thì
+ * mất luôn key đánh dấu, maintain() nạp lại dù eventCreated/postCreated đã kịp tạo lại feed với vài phần tử.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeedService {
+    public static final String RECENT_EVENTS = "feed:events:recent";
+    public static final String TRENDING_EVENTS = "feed:events:trending";
+    public static final String RECENT_POSTS = "feed:posts:recent";
+    private static final String DECAYED_AT = "feed:events:trending:decayed-at";
+    private static final String RECENT_EVENTS_SEEDED = "feed:events:recent:seeded";
+    private static final String RECENT_POSTS_SEEDED = "feed:posts:recent:seeded";
+
+    public static final double LIKE_WEIGHT = 1;
+    public static final double POST_WEIGHT = 3;
+    public static final double REGISTRATION_WEIGHT = 5;
+
+    private static final String LOCK_KEY = "lock:feed-maintain";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(2);
+
+    /**
+     * KEYS[1] = trending, KEYS[2] = decayed-at; ARGV = now, half-life (ms), maxSize.
+     * Nhân điểm, cắt và ghi mốc suy giảm trong một script: lỗi giữa chừng không làm lượt sau suy giảm lần hai.
+     */
+    private static final DefaultRedisScript<Long> DECAY_SCRIPT = new DefaultRedisScript<>("""
+            local last = redis.call('GET', KEYS[2])
+            if not last then
+                return 0
+            end
+            local elapsed = tonumber(ARGV[1]) - tonumber(last)
+            if elapsed <= 0 then
+                return 0
+            end
+            local factor = 0.5 ^ (elapsed / tonumber(ARGV[2]))
+            redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', string.format('%.17g', factor))
+            redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 1))
+            redis.call('SET', KEYS[2], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private static final String SEED_RECENT_EVENTS_SQL =
+            "SELECT event_id, created_at FROM events ORDER BY event_id DESC LIMIT ?";
+    private static final String SEED_RECENT_POSTS_SQL =
+            "SELECT post_id, created_at FROM posts ORDER BY post_id DESC LIMIT ?";
+    private static final String SEED_TRENDING_SQL = """
+            SELECT event_id, SUM(weight * power(0.5, EXTRACT(EPOCH FROM (now() - created_at)) / ?)) AS score
+            FROM (
+                SELECT target_id AS event_id, 1 AS weight, created_at FROM likes WHERE target_type = 'EVENT'
+                UNION ALL
+                SELECT event_id, 3, created_at FROM posts
+                UNION ALL
+                SELECT event_id, 5, created_at FROM event_registration
+            ) engagement
+            WHERE created_at > now() - make_interval(secs => ? * 8)
+            GROUP BY event_id
+            ORDER BY score DESC
+            LIMIT ?
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${feed.max-size:1000}")
+    private int maxSize;
+
+    @Value("${feed.trending-half-life:24h}")
+    private Duration halfLife;
+
+    // READ
+
+    public List<Long> recentEvents(int limit, LocalDateTime since) {
+        return readRecent(RECENT_EVENTS, limit, since);
+    }
+
+    public List<Long> trendingEvents(int limit) {
+        return toIds(redisTemplate.opsForZSet().reverseRange(TRENDING_EVENTS, 0, limit - 1L));
+    }
+
+    public List<Long> recentPosts(int limit) {
+        return readRecent(RECENT_POSTS, limit, null);
+    }
+
+    // WRITE: gọi từ write service, chạy sau khi commit
+
+    public void eventCreated(Long eventId, LocalDateTime createdAt) {
+        TransactionUtils.afterCommit(() -> addRecent(RECENT_EVENTS, eventId, createdAt));
+    }
+
+    public void eventDeleted(Long eventId) {
+        TransactionUtils.afterCommit(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zRem(RECENT_EVENTS, eventId.toString());
+            conn.zRem(TRENDING_EVENTS, eventId.toString());
+            return null;
+        }));
+    }
+
+    public void postCreated(Long postId, Long eventId, LocalDateTime createdAt) {
+        TransactionUtils.afterCommit(() -> {
+            addRecent(RECENT_POSTS, postId, createdAt);
+            redisTemplate.opsForZSet().incrementScore(TRENDING_EVENTS, eventId.toString(), POST_WEIGHT);
+        });
+    }
+
+    public void postDeleted(Long postId) {
+        TransactionUtils.afterCommit(() -> redisTemplate.opsForZSet().remove(RECENT_POSTS, postId.toString()));
+    }
+
+    public void registrationCreated(Long eventId) {
+        TransactionUtils.afterCommit(() ->
+                redisTemplate.opsForZSet().incrementScore(TRENDING_EVENTS, eventId.toString(), REGISTRATION_WEIGHT));
+    }
+
+    /**
+     * delta theo eventId, gom từ một batch của like stream.
+     */
+    public void eventLikesChanged(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) return;
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            deltas.forEach((eventId, delta) -> {
+                if (delta != 0) conn.zIncrBy(TRENDING_EVENTS, delta * LIKE_WEIGHT, eventId.toString());
+            });
+            return null;
+        });
+    }
+
+    // MAINTENANCE
+
+    @Scheduled(initialDelay = 5_000, fixedDelayString = "${feed.decay-interval-ms:3600000}")
+    public void maintain() {
+        String token = RedisLock.tryAcquire(redisTemplate, LOCK_KEY, LOCK_TTL);
+        if (token == null) return;
+
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(RECENT_EVENTS_SEEDED))) {
+                seedRecent(RECENT_EVENTS, RECENT_EVENTS_SEEDED, SEED_RECENT_EVENTS_SQL);
+            }
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(RECENT_POSTS_SEEDED))) {
+                seedRecent(RECENT_POSTS, RECENT_POSTS_SEEDED, SEED_RECENT_POSTS_SQL);
+            }
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(DECAYED_AT))) {
+                seedTrending();
+            } else {
+                decayTrending();
+            }
+        } catch (Exception e) {
+            log.error("Feed maintenance failed", e);
+        } finally {
+            RedisLock.release(redisTemplate, LOCK_KEY, token);
+        }
+    }
+
+    /**
+     * Nhân toàn bộ điểm với 0.5^(thời gian từ lần suy giảm trước / half-life), rồi cắt còn maxSize phần tử.
+     */
+    private void decayTrending() {
+        redisTemplate.execute(DECAY_SCRIPT, List.of(TRENDING_EVENTS, DECAYED_AT),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(halfLife.toMillis()),
+                String.valueOf(maxSize));
+    }
+
+    /**
+     * ZADD gộp vào feed đang có (giữ các phần tử vừa được thêm sau khi Redis mất dữ liệu), cắt lại maxSize,
+     * rồi mới đặt key đánh dấu.
+     */
+    private void seedRecent(String key, String seededKey, String sql) {
+        Map<String, Double> scores = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            scores.put(String.valueOf(rs.getLong(1)), (double) toMillis(rs.getTimestamp(2).toLocalDateTime()));
+        }, maxSize);
+        writeScores(key, scores);
+        redisTemplate.opsForZSet().removeRange(key, 0, -(maxSize + 1L));
+        redisTemplate.opsForValue().set(seededKey, String.valueOf(System.currentTimeMillis()));
+        log.info("Seeded {} with {} entries", key, scores.size());
+    }
+
+    private void seedTrending() {
+        double halfLifeSeconds = halfLife.toSeconds();
+        Map<String, Double> scores = new HashMap<>();
+        jdbcTemplate.query(SEED_TRENDING_SQL, rs -> {
+            scores.put(String.valueOf(rs.getLong(1)), rs.getDouble(2));
+        }, halfLifeSeconds, halfLifeSeconds, maxSize);
+        redisTemplate.delete(TRENDING_EVENTS);
+        writeScores(TRENDING_EVENTS, scores);
+        redisTemplate.opsForValue().set(DECAYED_AT, String.valueOf(System.currentTimeMillis()));
+        log.info("Seeded {} with {} entries", TRENDING_EVENTS, scores.size());
+    }
+
+    private void writeScores(String key, Map<String, Double> scores) {
+        if (scores.isEmpty()) return;
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            scores.forEach((member, score) -> conn.zAdd(key, score, member));
+            return null;
+        });
+    }
+
+    private void addRecent(String key, Long id, LocalDateTime createdAt) {
+        long score = toMillis(createdAt != null ? createdAt : LocalDateTime.now());
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zAdd(key, score, id.toString());
+            conn.zRemRange(key, 0, -(maxSize + 1L));
+            return null;
+        });
+    }
+
+    private List<Long> readRecent(String key, int limit, LocalDateTime since) {
+        double min = since != null ? toMillis(since) : Double.NEGATIVE_INFINITY;
+        return toIds(redisTemplate.opsForZSet().reverseRangeByScore(key, min, Double.POSITIVE_INFINITY, 0, limit));
+    }
+
+    private static List<Long> toIds(Set<String> members) {
+        if (members == null) return List.of();
+        return members.stream().map(Long::valueOf).toList();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
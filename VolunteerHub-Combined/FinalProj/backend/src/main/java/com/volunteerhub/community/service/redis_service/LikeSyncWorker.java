@@ -1,62 +1,269 @@
 package com.volunteerhub.community.service.redis_service;
 
+import com.volunteerhub.community.dto.redis.LikeSyncEvent;
+import com.volunteerhub.community.model.db_enum.TableType;
 import com.volunteerhub.community.repository.LikeRepository;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.redis.connection.StringRedisConnection;
 import org.springframework.data.redis.connection.stream.*;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.UUID;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class LikeSyncWorker {
+    private static final Duration READ_BLOCK = Duration.ofSeconds(2);
+    private static final Duration CLAIM_MIN_IDLE = Duration.ofMinutes(1);
+
     @Value("${redis.like-event}")
     private String redisLikeEvent;
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    @Value("${redis.like-group:like-group}")
+    private String likeGroup;
+
+    @Value("${redis.like-batch-size:500}")
+    private int batchSize;
+
+    private final StringRedisTemplate stringRedisTemplate;
     private final LikeRepository likeRepository; // DB
+    private final FeedService feedService;
+
+    // mỗi node một consumer riêng: pid@hostname
+    private final String consumerName = ManagementFactory.getRuntimeMXBean().getName();
 
-    @Scheduled(fixedDelay = 1000)  // mỗi giây kéo 1 batch
+    private volatile boolean groupReady = false;
+
+    @PostConstruct
+    public void init() {
+        ensureGroup();
+    }
+
+    /**
+     * XREADGROUP chặn tối đa READ_BLOCK, gộp toggle trong batch rồi ghi DB.
+     */
+    @Scheduled(fixedDelay = 100)
     public void consume() {
+        if (!ensureGroup()) return;
+
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                Consumer.from(likeGroup, consumerName),
+                StreamReadOptions.empty().count(batchSize).block(READ_BLOCK),
+                StreamOffset.create(redisLikeEvent, ReadOffset.lastConsumed())
+        );
+
+        if (records == null || records.isEmpty()) return;
+
+        flush(records);
+    }
+
+    /**
+     * Nhận lại các entry pending quá lâu của consumer đã chết (hoặc batch ghi DB lỗi).
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void reclaim() {
+        if (!ensureGroup()) return;
+
+        // XAUTOCLAIM quét PEL theo cursor, mỗi lượt tối đa batchSize entry, "0-0" là đã quét hết
+        String cursor = "0-0";
+        int total = 0;
+        do {
+            ClaimedPage page = autoClaim(cursor);
+            cursor = page.next();
+            if (page.records().isEmpty()) continue;
+
+            total += page.records().size();
+            if (!flush(page.records())) break;
+        } while (!"0-0".equals(cursor));
+
+        if (total > 0) {
+            log.info("Reclaimed {} pending like events for consumer {}", total, consumerName);
+        }
+    }
+
+    /**
+     * @return false nếu ghi DB lỗi, entry được giữ lại trong PEL
+     */
+    private boolean flush(List<MapRecord<String, Object, Object>> records) {
+        // key = userId:tableType:targetId, mỗi cặp ghi một lần theo trạng thái trên Redis
+        Map<String, LikeSyncEvent> latest = new LinkedHashMap<>();
+        RecordId[] ids = new RecordId[records.size()];
+        // like/unlike trên event, cộng vào điểm trending
+        Map<Long, Integer> eventLikeDeltas = new HashMap<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            MapRecord<String, Object, Object> record = records.get(i);
+            ids[i] = record.getId();
+
+            LikeSyncEvent event = toEvent(record);
+            if (event == null) continue;
+
+            if (TableType.EVENT.name().equalsIgnoreCase(event.getTableType())) {
+                eventLikeDeltas.merge(event.getTargetId(), event.isLiked() ? 1 : -1, Integer::sum);
+            }
+
+            String key = event.getUserId() + ":" + event.getTableType() + ":" + event.getTargetId();
+            latest.remove(key);
+            latest.put(key, event);
+        }
+
         try {
-            redisTemplate.opsForStream().createGroup(redisLikeEvent, ReadOffset.from("0"), "like_group");
+            List<LikeSyncEvent> likes = new ArrayList<>();
+            List<LikeSyncEvent> unlikes = new ArrayList<>();
+            List<LikeSyncEvent> events = List.copyOf(latest.values());
+            List<Boolean> liked = currentState(events);
+            for (int i = 0; i < events.size(); i++) {
+                (liked.get(i) ? likes : unlikes).add(events.get(i));
+            }
+
+            likeRepository.applyLikeChanges(likes, unlikes);
         } catch (Exception e) {
-            // ignore nếu group đã tồn tại
+            // không ACK: entry ở lại PEL và sẽ được reclaim()
+            log.error("Failed to persist {} like events, leaving them pending", records.size(), e);
+            return false;
         }
 
-        List<MapRecord<String,Object,Object>> records =
-            redisTemplate.opsForStream().read(
-                Consumer.from("like_group", "worker1"),
-                StreamReadOptions.empty().count(200),
-                StreamOffset.create(redisLikeEvent, ReadOffset.lastConsumed())
-            );
+        // ACK sau khi transaction đã commit, rồi xoá entry để stream không phình mãi
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        ops.acknowledge(redisLikeEvent, likeGroup, ids);
+        ops.delete(redisLikeEvent, ids);
+
+        try {
+            feedService.eventLikesChanged(eventLikeDeltas);
+        } catch (Exception e) {
+            log.warn("Cannot update trending feed: {}", e.getMessage());
+        }
+        return true;
+    }
 
-        if (records == null) return;
+    /**
+     * Trạng thái like hiện tại trên Redis cho từng (user, target), không phải action của entry:
+     * entry có thể bị xử lý lệch thứ tự (hai consumer, hoặc reclaim() phát lại LIKE sau UNLIKE),
+     * set trên Redis mới là bản đúng. EXISTS set + SISMEMBER + EXISTS tombstone trong một pipeline;
+     * set và tombstone đều không còn (Redis mất dữ liệu) thì mới dùng action của entry.
+     */
+    private List<Boolean> currentState(List<LikeSyncEvent> events) {
+        if (events.isEmpty()) return List.of();
 
-        for (var record : records) {
-            var values = record.getValue();
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LikeSyncEvent event : events) {
+                String setKey = CounterKeys.likes(event.getTableType(), event.getTargetId());
+                conn.exists(setKey);
+                conn.sIsMember(setKey, event.getUserId().toString());
+                conn.exists(CounterKeys.likesEmpty(event.getTableType(), event.getTargetId()));
+            }
+            return null;
+        });
+
+        List<Boolean> liked = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            boolean setExists = Boolean.TRUE.equals(replies.get(3 * i));
+            boolean member = Boolean.TRUE.equals(replies.get(3 * i + 1));
+            boolean emptied = Boolean.TRUE.equals(replies.get(3 * i + 2));
+
+            if (setExists) liked.add(member);
+            else if (emptied) liked.add(false);
+            else liked.add(events.get(i).isLiked());
+        }
+        return liked;
+    }
+
+    private LikeSyncEvent toEvent(MapRecord<String, Object, Object> record) {
+        try {
+            Map<Object, Object> values = record.getValue();
             String action = values.get("action").toString();
             String tableType = values.get("tableType").toString();
             Long targetId = Long.valueOf(values.get("targetId").toString());
             UUID userId = UUID.fromString(values.get("userId").toString());
+            Object timestamp = values.get("timestamp");
+            OffsetDateTime at = timestamp != null
+                    ? Instant.ofEpochMilli(Long.parseLong(timestamp.toString())).atOffset(ZoneOffset.UTC)
+                    : null;
+
+            return new LikeSyncEvent(targetId, tableType, userId, RedisLikeService.LIKE.equals(action), at);
+        } catch (Exception e) {
+            log.warn("Skipping malformed like event {}: {}", record.getId(), e.getMessage());
+            return null;
+        }
+    }
 
-            if (action.equals("LIKE")) {
-//                Like like = Like.builder()
-//                        .targetId(targetId)
-//                        .tableType(TableType.valueOf(tableType))
-//                        .createdBy(null)
-//                        .build();
-//                likeRepository.saveIfNotExists(userId, tableType, targetId);
-            } else {
-//                likeRepository.delete(userId, tableType, targetId);
+    @SuppressWarnings("unchecked")
+    private ClaimedPage autoClaim(String cursor) {
+        ClaimedPage result = stringRedisTemplate.execute((RedisCallback<ClaimedPage>) connection -> {
+            RedisStreamAsyncCommands<byte[], byte[]> commands =
+                    (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+
+            XAutoClaimArgs<byte[]> args = XAutoClaimArgs.Builder
+                    .xautoclaim(io.lettuce.core.Consumer.from(bytes(likeGroup), bytes(consumerName)),
+                            CLAIM_MIN_IDLE, cursor)
+                    .count(batchSize);
+
+            ClaimedMessages<byte[], byte[]> claimed = LettuceFutures.awaitOrCancel(
+                    commands.xautoclaim(bytes(redisLikeEvent), args), 5, TimeUnit.SECONDS);
+
+            List<MapRecord<String, Object, Object>> records = new ArrayList<>();
+            for (StreamMessage<byte[], byte[]> message : claimed.getMessages()) {
+                if (message.getBody() == null) continue; // entry đã bị xoá khỏi stream
+
+                Map<Object, Object> values = new HashMap<>();
+                message.getBody().forEach((k, v) ->
+                        values.put(new String(k, StandardCharsets.UTF_8), new String(v, StandardCharsets.UTF_8)));
+
+                records.add(StreamRecords.newRecord()
+                        .in(redisLikeEvent)
+                        .withId(RecordId.of(message.getId()))
+                        .ofMap(values));
             }
+            return new ClaimedPage(records, claimed.getId());
+        });
+        return result != null ? result : new ClaimedPage(List.of(), "0-0");
+    }
 
-            // ACK event
-            redisTemplate.opsForStream().acknowledge("like_events", "like_group", record.getId());
+    private boolean ensureGroup() {
+        if (groupReady) return true;
+
+        try {
+            stringRedisTemplate.opsForStream().createGroup(redisLikeEvent, ReadOffset.from("0"), likeGroup);
+        } catch (Exception e) {
+            // BUSYGROUP: group đã tồn tại
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (reason == null || !reason.contains("BUSYGROUP")) {
+                log.warn("Cannot create consumer group {} on {}: {}", likeGroup, redisLikeEvent, e.getMessage());
+                return false;
+            }
         }
+
+        groupReady = true;
+        return true;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // một trang XAUTOCLAIM: entry đã nhận và cursor cho lần gọi kế tiếp
+    private record ClaimedPage(List<MapRecord<String, Object, Object>> records, String next) {
     }
 }
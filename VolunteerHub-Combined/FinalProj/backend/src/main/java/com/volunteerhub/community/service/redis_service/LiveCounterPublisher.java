@@ -0,0 +1,65 @@
+package com.volunteerhub.community.service.redis_service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phía ghi của live counter: đánh dấu post/event vừa đổi counter, mỗi live-counters.window-ms gửi
+ * một message pub/sub chứa mọi target đã đổi trên node này. Like storm trên một target chỉ tốn
+ * một PUBLISH mỗi cửa sổ. Payload: "post:1 post:2 event:7".
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveCounterPublisher {
+    public static final String POST = "post";
+    public static final String EVENT = "event";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${live-counters.channel:counters:changed}")
+    private String channel;
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public void postChanged(Long postId) {
+        dirty.add(POST + ":" + postId);
+    }
+
+    public void eventChanged(Long eventId) {
+        dirty.add(EVENT + ":" + eventId);
+    }
+
+    // like trên comment không có subscription
+    public void likeChanged(String tableType, Long targetId) {
+        if (POST.equalsIgnoreCase(tableType)) postChanged(targetId);
+        else if (EVENT.equalsIgnoreCase(tableType)) eventChanged(targetId);
+    }
+
+    @Scheduled(fixedDelayString = "${live-counters.window-ms:250}")
+    public void flush() {
+        if (dirty.isEmpty()) return;
+
+        List<String> targets = new ArrayList<>();
+        for (Iterator<String> it = dirty.iterator(); it.hasNext(); ) {
+            targets.add(it.next());
+            it.remove();
+        }
+
+        try {
+            redisTemplate.convertAndSend(channel, String.join(" ", targets));
+        } catch (Exception e) {
+            log.warn("Cannot publish {} counter changes: {}", targets.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.volunteerhub.community.service.redis_service;
+
+import com.volunteerhub.community.dto.graphql.type.EventCountersUpdate;
+import com.volunteerhub.community.dto.graphql.type.PostCountersUpdate;
+import com.volunteerhub.community.dto.redis.EventCounters;
+import com.volunteerhub.community.dto.redis.PostCounters;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Phía đọc của live counter cho subscription postCounters / eventCounters.
+ * Mỗi target có subscriber trên node này giữ một sink; khi nhận message từ LiveCounterPublisher,
+ * đọc counter của các target liên quan trong một pipeline rồi đẩy cho mọi subscriber của target đó.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveCounterService implements MessageListener {
+    private static final Sinks.EmitFailureHandler RETRY_EMIT = Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(10));
+
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RedisCountService redisCountService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${live-counters.channel:counters:changed}")
+    private String channel;
+
+    // "post:{id}" / "event:{id}" -> sink dùng chung cho mọi subscriber của target
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gaugeMapSize("live.counters.topics", List.of(), topics);
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    public Flux<PostCountersUpdate> postCounters(Long postId) {
+        return watch(LiveCounterPublisher.POST + ":" + postId, PostCountersUpdate.class,
+                () -> toUpdate(postId, redisCountService.postCountsFor(List.of(postId)).get(postId)));
+    }
+
+    public Flux<EventCountersUpdate> eventCounters(Long eventId) {
+        return watch(LiveCounterPublisher.EVENT + ":" + eventId, EventCountersUpdate.class,
+                () -> toUpdate(eventId, redisCountService.countsFor(List.of(eventId)).get(eventId)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<Long> postIds = new ArrayList<>();
+        List<Long> eventIds = new ArrayList<>();
+
+        for (String target : new String(message.getBody(), StandardCharsets.UTF_8).split(" ")) {
+            // chỉ đọc counter của target có subscriber trên node này
+            if (!topics.containsKey(target)) continue;
+
+            int sep = target.indexOf(':');
+            try {
+                Long id = Long.valueOf(target.substring(sep + 1));
+                if (target.startsWith(LiveCounterPublisher.POST + ":")) postIds.add(id);
+                else if (target.startsWith(LiveCounterPublisher.EVENT + ":")) eventIds.add(id);
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed counter change {}", target);
+            }
+        }
+
+        try {
+            if (!postIds.isEmpty()) {
+                redisCountService.postCountsFor(postIds).forEach((postId, counters) ->
+                        emit(LiveCounterPublisher.POST + ":" + postId, toUpdate(postId, counters)));
+            }
+            if (!eventIds.isEmpty()) {
+                redisCountService.countsFor(eventIds).forEach((eventId, counters) ->
+                        emit(LiveCounterPublisher.EVENT + ":" + eventId, toUpdate(eventId, counters)));
+            }
+        } catch (Exception e) {
+            log.warn("Cannot push live counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Giá trị hiện tại trước, sau đó là các lần thay đổi. Subscriber chậm chỉ giữ giá trị mới nhất.
+     */
+    private <T> Flux<T> watch(String target, Class<T> type, Supplier<T> current) {
+        return Flux.defer(() -> {
+            Sinks.Many<Object> sink = acquire(target);
+            return Flux.concat(Mono.fromSupplier(current), sink.asFlux().cast(type).onBackpressureLatest())
+                    .doFinally(signal -> release(target));
+        });
+    }
+
+    private void emit(String target, Object update) {
+        Topic topic = topics.get(target);
+        if (topic == null) return;
+
+        try {
+            topic.sink.emitNext(update, RETRY_EMIT);
+            meterRegistry.counter("live.counters.pushes").increment(topic.subscribers);
+        } catch (Exception e) {
+            log.warn("Cannot emit live counters for {}: {}", target, e.getMessage());
+        }
+    }
+
+    private Sinks.Many<Object> acquire(String target) {
+        return topics.compute(target, (key, topic) -> {
+            Topic acquired = topic != null ? topic : new Topic();
+            acquired.subscribers++;
+            return acquired;
+        }).sink;
+    }
+
+    private void release(String target) {
+        topics.computeIfPresent(target, (key, topic) -> --topic.subscribers > 0 ? topic : null);
+    }
+
+    private static PostCountersUpdate toUpdate(Long postId, PostCounters counters) {
+        PostCounters value = counters != null ? counters : new PostCounters();
+        return PostCountersUpdate.builder()
+                .postId(postId)
+                .likeCount(value.getLikeCount())
+                .commentCount(value.getCommentCount())
+                .build();
+    }
+
+    private static EventCountersUpdate toUpdate(Long eventId, EventCounters counters) {
+        EventCounters value = counters != null ? counters : new EventCounters();
+        return EventCountersUpdate.builder()
+                .eventId(eventId)
+                .memberCount(value.getMemberCount())
+                .postCount(value.getPostCount())
+                .likeCount(value.getLikeCount())
+                .build();
+    }
+
+    // subscribers chỉ đổi trong compute của ConcurrentHashMap
+    private static final class Topic {
+        private final Sinks.Many<Object> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
@@ -1,38 +1,231 @@
 package com.volunteerhub.community.service.redis_service;
 
+import com.volunteerhub.community.dto.redis.EventCounters;
+import com.volunteerhub.community.dto.redis.LikeTarget;
+import com.volunteerhub.community.dto.redis.PostCounters;
+import com.volunteerhub.ultis.TransactionUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.function.Function;
+
 @Service
 @RequiredArgsConstructor
 public class RedisCountService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    // DECR nhưng không xuống dưới 0 (key chưa được reconcile)
+    private static final DefaultRedisScript<Long> DECR_FLOOR_SCRIPT = new DefaultRedisScript<>("""
+            local value = redis.call('DECR', KEYS[1])
+            if value < 0 then
+                redis.call('SET', KEYS[1], 0)
+                return 0
+            end
+            return value
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LiveCounterPublisher liveCounterPublisher;
 
     public int likeCount(Long targetId, String targetType) {
-        String key = String.format("like:%s:%d", targetType, targetId);
-        Long count = redisTemplate.opsForSet().size(key);
+        Long count = redisTemplate.opsForSet().size(CounterKeys.likes(targetType, targetId));
         return count != null ? count.intValue() : 0;
     }
 
     public int commentCount(Long postId) {
-        String key = String.format("comment:post:%d", postId);
-        Long count = redisTemplate.opsForValue().get(key) != null ? 
-                     Long.parseLong(redisTemplate.opsForValue().get(key).toString()) : 0L;
-        return count.intValue();
+        String value = redisTemplate.opsForValue().get(CounterKeys.comments(postId));
+        return value != null ? Integer.parseInt(value) : 0;
     }
 
     public int memberCount(Long eventId) {
-        String key = String.format("member:event:%d", eventId);
-        Long count = redisTemplate.opsForSet().size(key);
+        Long count = redisTemplate.opsForSet().size(CounterKeys.members(eventId));
         return count != null ? count.intValue() : 0;
     }
 
     public int postCount(Long eventId) {
-        String key = String.format("post:event:%d", eventId);
-        Long count = redisTemplate.opsForValue().get(key) != null ? 
-                     Long.parseLong(redisTemplate.opsForValue().get(key).toString()) : 0L;
-        return count.intValue();
+        String value = redisTemplate.opsForValue().get(CounterKeys.posts(eventId));
+        return value != null ? Integer.parseInt(value) : 0;
+    }
+
+    // WRITE: chỉ chạy sau khi transaction của service commit, CounterReconciler sửa lệch nếu có
+
+    public void postCreated(Long eventId) {
+        TransactionUtils.afterCommit(() -> {
+            redisTemplate.opsForValue().increment(CounterKeys.posts(eventId));
+            liveCounterPublisher.eventChanged(eventId);
+        });
+    }
+
+    public void postDeleted(Long eventId) {
+        TransactionUtils.afterCommit(() -> {
+            decrement(CounterKeys.posts(eventId));
+            liveCounterPublisher.eventChanged(eventId);
+        });
+    }
+
+    public void commentCreated(Long postId) {
+        TransactionUtils.afterCommit(() -> {
+            redisTemplate.opsForValue().increment(CounterKeys.comments(postId));
+            liveCounterPublisher.postChanged(postId);
+        });
+    }
+
+    public void commentDeleted(Long postId) {
+        TransactionUtils.afterCommit(() -> {
+            decrement(CounterKeys.comments(postId));
+            liveCounterPublisher.postChanged(postId);
+        });
+    }
+
+    public void memberAdded(Long eventId, UUID userId) {
+        TransactionUtils.afterCommit(() -> {
+            redisTemplate.opsForSet().add(CounterKeys.members(eventId), userId.toString());
+            liveCounterPublisher.eventChanged(eventId);
+        });
+    }
+
+    public void membersAdded(Long eventId, Collection<UUID> userIds) {
+        String[] members = userIds.stream().map(UUID::toString).toArray(String[]::new);
+        TransactionUtils.afterCommit(() -> {
+            redisTemplate.opsForSet().add(CounterKeys.members(eventId), members);
+            liveCounterPublisher.eventChanged(eventId);
+        });
+    }
+
+    public void memberRemoved(Long eventId, UUID userId) {
+        TransactionUtils.afterCommit(() -> {
+            redisTemplate.opsForSet().remove(CounterKeys.members(eventId), userId.toString());
+            liveCounterPublisher.eventChanged(eventId);
+        });
+    }
+
+    /**
+     * Xoá toàn bộ counter của một event đã bị xoá.
+     */
+    public void eventDeleted(Long eventId) {
+        TransactionUtils.afterCommit(() -> redisTemplate.delete(List.of(
+                CounterKeys.members(eventId),
+                CounterKeys.posts(eventId),
+                CounterKeys.likes("event", eventId),
+                CounterKeys.seats(eventId))));
+    }
+
+    // BATCH: một round trip cho cả trang, dùng bởi BatchLoaderConfig
+
+    public Map<LikeTarget, Integer> likeCounts(Collection<LikeTarget> targets) {
+        return scardAll(targets, target -> CounterKeys.likes(target.getTableType(), target.getTargetId()));
+    }
+
+    public Map<Long, Integer> commentCounts(Collection<Long> postIds) {
+        return mgetAll(postIds, CounterKeys::comments);
+    }
+
+    public Map<Long, Integer> memberCounts(Collection<Long> eventIds) {
+        return scardAll(eventIds, CounterKeys::members);
+    }
+
+    public Map<Long, Integer> postCounts(Collection<Long> eventIds) {
+        return mgetAll(eventIds, CounterKeys::posts);
+    }
+
+    /**
+     * memberCount + postCount + likeCount của cả danh sách event trong một pipeline.
+     */
+    public Map<Long, EventCounters> countsFor(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) return Map.of();
+
+        List<Long> ordered = List.copyOf(eventIds);
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long eventId : ordered) {
+                conn.sCard(CounterKeys.members(eventId));
+                conn.get(CounterKeys.posts(eventId));
+                conn.sCard(CounterKeys.likes("event", eventId));
+            }
+            return null;
+        });
+
+        Map<Long, EventCounters> result = new HashMap<>(ordered.size() * 2);
+        for (int i = 0; i < ordered.size(); i++) {
+            result.put(ordered.get(i), new EventCounters(
+                    toInt(replies.get(3 * i)),
+                    toInt(replies.get(3 * i + 1)),
+                    toInt(replies.get(3 * i + 2))));
+        }
+        return result;
+    }
+
+    /**
+     * commentCount + likeCount của cả danh sách post trong một pipeline.
+     */
+    public Map<Long, PostCounters> postCountsFor(Collection<Long> postIds) {
+        if (postIds.isEmpty()) return Map.of();
+
+        List<Long> ordered = List.copyOf(postIds);
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long postId : ordered) {
+                conn.get(CounterKeys.comments(postId));
+                conn.sCard(CounterKeys.likes("post", postId));
+            }
+            return null;
+        });
+
+        Map<Long, PostCounters> result = new HashMap<>(ordered.size() * 2);
+        for (int i = 0; i < ordered.size(); i++) {
+            result.put(ordered.get(i), new PostCounters(
+                    toInt(replies.get(2 * i)),
+                    toInt(replies.get(2 * i + 1))));
+        }
+        return result;
+    }
+
+    private static int toInt(Object reply) {
+        if (reply instanceof Number number) return number.intValue();
+        if (reply instanceof String value) return Integer.parseInt(value);
+        return 0;
+    }
+
+    private <K> Map<K, Integer> mgetAll(Collection<K> ids, Function<K, String> keyOf) {
+        if (ids.isEmpty()) return Map.of();
+
+        List<K> ordered = List.copyOf(ids);
+        List<String> keys = ordered.stream().map(keyOf).toList();
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+
+        Map<K, Integer> result = new HashMap<>(ordered.size() * 2);
+        for (int i = 0; i < ordered.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            result.put(ordered.get(i), value != null ? Integer.parseInt(value) : 0);
+        }
+        return result;
+    }
+
+    private <K> Map<K, Integer> scardAll(Collection<K> ids, Function<K, String> keyOf) {
+        if (ids.isEmpty()) return Map.of();
+
+        List<K> ordered = List.copyOf(ids);
+        List<Object> sizes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (K id : ordered) {
+                conn.sCard(keyOf.apply(id));
+            }
+            return null;
+        });
+
+        Map<K, Integer> result = new HashMap<>(ordered.size() * 2);
+        for (int i = 0; i < ordered.size(); i++) {
+            Object size = sizes.get(i);
+            result.put(ordered.get(i), size != null ? ((Number) size).intValue() : 0);
+        }
+        return result;
+    }
+
+    private void decrement(String key) {
+        redisTemplate.execute(DECR_FLOOR_SCRIPT, List.of(key));
     }
 }
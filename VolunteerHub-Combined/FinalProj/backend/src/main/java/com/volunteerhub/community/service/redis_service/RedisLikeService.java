@@ -1,93 +1,205 @@
 package com.volunteerhub.community.service.redis_service;
 
+import com.volunteerhub.community.dto.redis.LikeSyncEvent;
+import com.volunteerhub.community.dto.redis.LikeToggleResult;
+import com.volunteerhub.community.dto.redis.LikedKey;
+import com.volunteerhub.community.model.db_enum.TableType;
+import com.volunteerhub.community.repository.LikeRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
 
 
 @Service
 @RequiredArgsConstructor
 public class RedisLikeService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    public static final String LIKE = "LIKE";
+    public static final String UNLIKE = "UNLIKE";
+
+    /**
+     * KEYS[1] = set likes của target, KEYS[2] = stream like-event, KEYS[3] = tombstone likes:{type}:{id}:empty
+     * ARGV    = userId, action, tableType, targetId, timestamp, tombstone ttl (giây)
+     * Chỉ XADD khi set thực sự thay đổi, trả về {changed, count}.
+     * Unlike cuối cùng làm Redis xoá set: đặt tombstone để CounterReconciler không nạp lại các dòng
+     * LikeSyncWorker chưa kịp DELETE.
+     */
+    private static final String TOGGLE_SCRIPT = """
+            local changed
+            if ARGV[2] == 'LIKE' then
+                changed = redis.call('SADD', KEYS[1], ARGV[1])
+            else
+                changed = redis.call('SREM', KEYS[1], ARGV[1])
+            end
+            if changed == 1 then
+                redis.call('XADD', KEYS[2], '*',
+                        'action', ARGV[2], 'tableType', ARGV[3], 'targetId', ARGV[4],
+                        'userId', ARGV[1], 'timestamp', ARGV[5])
+                if ARGV[2] == 'LIKE' then
+                    redis.call('DEL', KEYS[3])
+                elseif redis.call('EXISTS', KEYS[1]) == 0 then
+                    redis.call('SET', KEYS[3], '1', 'EX', ARGV[6])
+                end
+            end
+            return {changed, redis.call('SCARD', KEYS[1])}
+            """;
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> toggleScript = new DefaultRedisScript<>(TOGGLE_SCRIPT, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final LikeRepository likeRepository;
+    private final LiveCounterPublisher liveCounterPublisher;
 
     @Value("${redis.like-event}")
     private String redisLikeEvent;
 
-    public void like(Long targetId, String tableType, UUID userId) {
-        String key = buildKey(tableType, targetId);
+    @Value("${likes.tombstone-ttl:1d}")
+    private Duration tombstoneTtl;
 
-        // 1) Update Redis Set
-        redisTemplate.opsForSet().add(key, userId.toString());
+    public LikeToggleResult like(Long targetId, String tableType, UUID userId) {
+        return toggle(targetId, tableType, userId, LIKE);
+    }
 
-        // 2) Push event vào Redis Stream
-        Map<String, Object> fields = new HashMap<>();
-        fields.put("action", "LIKE");
-        fields.put("tableType", tableType);
-        fields.put("targetId", targetId);
-        fields.put("userId", userId.toString());
-        fields.put("timestamp", System.currentTimeMillis());
+    public LikeToggleResult unlike(Long targetId, String tableType, UUID userId) {
+        return toggle(targetId, tableType, userId, UNLIKE);
+    }
 
-        redisTemplate.opsForStream().add(redisLikeEvent, fields);
+    /**
+     * Gửi nhiều like/unlike trong một pipeline, kết quả trả về theo đúng thứ tự đầu vào.
+     */
+    public List<LikeToggleResult> toggleAll(Collection<LikeSyncEvent> toggles) {
+        if (toggles.isEmpty()) {
+            return List.of();
+        }
+
+        List<LikeSyncEvent> ordered = List.copyOf(toggles);
+        String now = String.valueOf(System.currentTimeMillis());
+
+        List<Object> replies;
+        try {
+            replies = pipelineToggles(ordered, now);
+        } catch (DataAccessException e) {
+            // Redis restart / SCRIPT FLUSH: nạp lại script rồi gửi lại cả batch (SADD/SREM lặp lại không đổi set)
+            if (!String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage()).contains("NOSCRIPT")) throw e;
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.scriptingCommands().scriptLoad(TOGGLE_SCRIPT.getBytes(StandardCharsets.UTF_8)));
+            replies = pipelineToggles(ordered, now);
+        }
+
+        List<LikeToggleResult> results = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            LikeSyncEvent toggle = ordered.get(i);
+            results.add(toResult(toggle.getTargetId(), toggle.getTableType(), (List<?>) replies.get(i)));
+        }
+        return results;
     }
 
-    public void unlike(Long targetId, String tableType, UUID userId) {
-        String key = buildKey(tableType, targetId);
+    /**
+     * EVALSHA thay vì EVAL: mỗi toggle chỉ gửi sha của script, không gửi lại toàn bộ source.
+     */
+    private List<Object> pipelineToggles(List<LikeSyncEvent> ordered, String now) {
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LikeSyncEvent toggle : ordered) {
+                conn.evalSha(toggleScript.getSha1(), ReturnType.MULTI, 3,
+                        buildKey(toggle.getTableType(), toggle.getTargetId()),
+                        redisLikeEvent,
+                        CounterKeys.likesEmpty(toggle.getTableType(), toggle.getTargetId()),
+                        toggle.getUserId().toString(),
+                        toggle.isLiked() ? LIKE : UNLIKE,
+                        toggle.getTableType(),
+                        toggle.getTargetId().toString(),
+                        now,
+                        String.valueOf(tombstoneTtl.toSeconds()));
+            }
+            return null;
+        });
+    }
 
-        redisTemplate.opsForSet().remove(key, userId.toString());
+    /**
+     * Trả lời isLiked cho cả trang: EXISTS + SISMEMBER trong một pipeline.
+     * Target chưa có set trên Redis (cache nguội) thì hỏi DB, mỗi (user, tableType) một query IN (...).
+     */
+    public Map<LikedKey, Boolean> likedBy(Collection<LikedKey> keys) {
+        if (keys.isEmpty()) return Map.of();
+
+        List<LikedKey> ordered = List.copyOf(keys);
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LikedKey key : ordered) {
+                String setKey = buildKey(key.getTableType(), key.getTargetId());
+                conn.exists(setKey);
+                conn.sIsMember(setKey, key.getUserId().toString());
+            }
+            return null;
+        });
+
+        Map<LikedKey, Boolean> result = new HashMap<>(ordered.size() * 2);
+        List<LikedKey> misses = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            LikedKey key = ordered.get(i);
+            if (Boolean.TRUE.equals(replies.get(2 * i))) {
+                result.put(key, Boolean.TRUE.equals(replies.get(2 * i + 1)));
+            } else {
+                misses.add(key);
+            }
+        }
+
+        // key = userId:TABLE_TYPE
+        Map<String, List<LikedKey>> groups = misses.stream()
+                .collect(Collectors.groupingBy(key -> key.getUserId() + ":" + key.getTableType().toUpperCase()));
+        for (List<LikedKey> group : groups.values()) {
+            LikedKey first = group.get(0);
+            Set<Long> liked = new HashSet<>(likeRepository.findLikedTargetIds(
+                    first.getUserId(),
+                    TableType.valueOf(first.getTableType().toUpperCase()),
+                    group.stream().map(LikedKey::getTargetId).toList()));
+            group.forEach(key -> result.put(key, liked.contains(key.getTargetId())));
+        }
+
+        return result;
+    }
 
-        Map<String, Object> fields = new HashMap<>();
-        fields.put("action", "UNLIKE");
-        fields.put("tableType", tableType);
-        fields.put("targetId", targetId);
-        fields.put("userId", userId.toString());
-        fields.put("timestamp", System.currentTimeMillis());
+    private LikeToggleResult toggle(Long targetId, String tableType, UUID userId, String action) {
+        List<?> reply = stringRedisTemplate.execute(
+                toggleScript,
+                List.of(buildKey(tableType, targetId), redisLikeEvent, CounterKeys.likesEmpty(tableType, targetId)),
+                userId.toString(),
+                action,
+                tableType,
+                targetId.toString(),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(tombstoneTtl.toSeconds())
+        );
+        return toResult(targetId, tableType, reply);
+    }
 
-        redisTemplate.opsForStream().add(redisLikeEvent, fields);
+    private LikeToggleResult toResult(Long targetId, String tableType, List<?> reply) {
+        if (reply == null || reply.size() < 2) {
+            return new LikeToggleResult(targetId, tableType, false, 0L);
+        }
+        boolean changed = ((Number) reply.get(0)).longValue() == 1L;
+        long count = ((Number) reply.get(1)).longValue();
+        if (changed) {
+            liveCounterPublisher.likeChanged(tableType, targetId);
+        }
+        return new LikeToggleResult(targetId, tableType, changed, count);
     }
 
     private String buildKey(String tableType, Long targetId) {
-        return String.format("likes:%s:%d", tableType, targetId);
+        return CounterKeys.likes(tableType, targetId);
     }
 }
-
-
-//import org.springframework.data.redis.core.RedisTemplate;
-//import org.springframework.data.redis.core.script.DefaultRedisScript;
-//import java.util.Arrays;
-//import java.util.UUID;
-//
-//public void likeOrUnlike(Long targetId, String tableType, UUID userId, boolean like) {
-//    String setKey = "likes:" + tableType + ":" + targetId;
-//    String streamKey = "like_events";
-//
-//    String luaScript = """
-//        if ARGV[2] == "LIKE" then
-//            redis.call('SADD', KEYS[1], ARGV[1])
-//        elseif ARGV[2] == "UNLIKE" then
-//            redis.call('SREM', KEYS[1], ARGV[1])
-//        end
-//        local fields = {'action', ARGV[2], 'tableType', ARGV[3], 'targetId', ARGV[4], 'userId', ARGV[1], 'timestamp', ARGV[5]}
-//        redis.call('XADD', KEYS[2], '*', unpack(fields))
-//        return 1
-//    """;
-//
-//    DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
-//    redisScript.setScriptText(luaScript);
-//    redisScript.setResultType(Long.class);
-//
-//    redisTemplate.execute(
-//            redisScript,
-//            Arrays.asList(setKey, streamKey),
-//            userId.toString(),
-//            like ? "LIKE" : "UNLIKE",
-//            tableType,
-//            targetId.toString(),
-//            String.valueOf(System.currentTimeMillis())
-//    );
-//}
\ No newline at end of file
@@ -1,9 +1,180 @@
 package com.volunteerhub.community.service.redis_service;
 
+import com.volunteerhub.community.dto.redis.SeatReservation;
+import com.volunteerhub.community.repository.EventRegistrationRepository;
+import com.volunteerhub.ultis.TransactionUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+
+/**
+ * Giữ chỗ cho event có capacity: kiểm tra số chỗ và thêm user vào seats:event:{id} trong một script,
+ * request quá capacity bị từ chối ngay trên Redis, không chạm Postgres.
+ * Chỗ đã giữ được đưa vào stream registration-event, SeatSyncWorker ghi xuống DB theo lô.
+ */
 @Service
 @RequiredArgsConstructor
 public class RedisRegisterService {
+
+    // phần tử đánh dấu set đã được nạp từ DB, không tính vào số chỗ
+    private static final String LOADED_MARKER = "_";
+
+    public enum SeatResult { RESERVED, ALREADY_RESERVED, FULL }
+
+    /**
+     * KEYS[1] = seats:event:{id}, KEYS[2] = seats:pending, KEYS[3] = stream registration-event
+     * ARGV    = userId, capacity, eventId, registrationId, timestamp
+     * Trả về 1 giữ được chỗ, 0 đã giữ từ trước, -1 hết chỗ, -2 set chưa được nạp.
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return -2
+            end
+            if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 1 then
+                return 0
+            end
+            if redis.call('SCARD', KEYS[1]) - 1 >= tonumber(ARGV[2]) then
+                return -1
+            end
+            redis.call('SADD', KEYS[1], ARGV[1])
+            redis.call('ZADD', KEYS[2], ARGV[5], ARGV[3] .. ':' .. ARGV[1])
+            redis.call('XADD', KEYS[3], '*',
+                    'registrationId', ARGV[4], 'eventId', ARGV[3], 'userId', ARGV[1], 'timestamp', ARGV[5])
+            return 1
+            """, Long.class);
+
+    // chỉ thêm khi set đã được nạp, set chưa có sẽ được nạp đầy đủ từ DB ở lần giữ chỗ đầu tiên
+    private static final DefaultRedisScript<Long> ADD_IF_LOADED_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                return redis.call('SADD', KEYS[1], ARGV[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final EventRegistrationRepository eventRegistrationRepo;
+
+    @Value("${redis.registration-event:registration-event}")
+    private String registrationEvent;
+
+    public SeatResult reserve(Long eventId, int capacity, UUID userId, Long registrationId) {
+        Long reply = execReserve(eventId, capacity, userId, registrationId);
+        if (reply != null && reply == -2) {
+            load(eventId);
+            reply = execReserve(eventId, capacity, userId, registrationId);
+        }
+
+        if (reply == null || reply == -1) return SeatResult.FULL;
+        return reply == 1 ? SeatResult.RESERVED : SeatResult.ALREADY_RESERVED;
+    }
+
+    public boolean holds(Long eventId, UUID userId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(CounterKeys.seats(eventId), userId.toString()));
+    }
+
+    /**
+     * Kiểm tra cả batch trong một pipeline, trả về các reservation còn giữ chỗ.
+     */
+    public List<SeatReservation> stillHeld(List<SeatReservation> reservations) {
+        if (reservations.isEmpty()) return List.of();
+
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (SeatReservation reservation : reservations) {
+                conn.sIsMember(CounterKeys.seats(reservation.getEventId()), reservation.getUserId().toString());
+            }
+            return null;
+        });
+
+        List<SeatReservation> held = new ArrayList<>(reservations.size());
+        for (int i = 0; i < reservations.size(); i++) {
+            if (Boolean.TRUE.equals(replies.get(i))) held.add(reservations.get(i));
+        }
+        return held;
+    }
+
+    /**
+     * Đăng ký ghi thẳng xuống DB (event chưa đặt capacity) vẫn được tính chỗ nếu set đã tồn tại.
+     */
+    public void seatTaken(Long eventId, UUID userId) {
+        TransactionUtils.afterCommit(() -> redisTemplate.execute(ADD_IF_LOADED_SCRIPT,
+                List.of(CounterKeys.seats(eventId)), userId.toString()));
+    }
+
+    /**
+     * Trả chỗ (huỷ đăng ký, bị từ chối, giữ chỗ hết hạn hoặc ghi DB thất bại).
+     */
+    public void release(Long eventId, UUID userId) {
+        TransactionUtils.afterCommit(() -> releaseAll(List.of(new SeatReservation(null, eventId, userId))));
+    }
+
+    public void releaseAll(Collection<SeatReservation> reservations) {
+        if (reservations.isEmpty()) return;
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (SeatReservation reservation : reservations) {
+                String userId = reservation.getUserId().toString();
+                conn.sRem(CounterKeys.seats(reservation.getEventId()), userId);
+                conn.zRem(CounterKeys.SEATS_PENDING, CounterKeys.pendingSeat(reservation.getEventId(), userId));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Đã có dòng event_registration, bỏ khỏi danh sách chờ hết hạn.
+     */
+    public void persisted(Collection<SeatReservation> reservations) {
+        if (reservations.isEmpty()) return;
+
+        String[] members = reservations.stream()
+                .map(reservation -> CounterKeys.pendingSeat(reservation.getEventId(), reservation.getUserId().toString()))
+                .toArray(String[]::new);
+        redisTemplate.opsForZSet().remove(CounterKeys.SEATS_PENDING, (Object[]) members);
+    }
+
+    /**
+     * Các chỗ giữ trước thời điểm cutoffMillis mà chưa được ghi xuống DB.
+     */
+    public List<SeatReservation> pendingBefore(long cutoffMillis, int limit) {
+        Set<String> members = redisTemplate.opsForZSet()
+                .rangeByScore(CounterKeys.SEATS_PENDING, 0, cutoffMillis, 0, limit);
+        if (members == null) return List.of();
+
+        List<SeatReservation> result = new ArrayList<>(members.size());
+        for (String member : members) {
+            int sep = member.indexOf(':');
+            result.add(new SeatReservation(null,
+                    Long.valueOf(member.substring(0, sep)),
+                    UUID.fromString(member.substring(sep + 1))));
+        }
+        return result;
+    }
+
+    private Long execReserve(Long eventId, int capacity, UUID userId, Long registrationId) {
+        return redisTemplate.execute(RESERVE_SCRIPT,
+                List.of(CounterKeys.seats(eventId), CounterKeys.SEATS_PENDING, registrationEvent),
+                userId.toString(),
+                String.valueOf(capacity),
+                eventId.toString(),
+                registrationId.toString(),
+                String.valueOf(System.currentTimeMillis()));
+    }
+
+    /**
+     * Nạp set từ các đăng ký đã có trong DB. Nhiều request cùng nạp thì SADD hợp lại, không mất phần tử.
+     */
+    private void load(Long eventId) {
+        List<String> members = new ArrayList<>();
+        members.add(LOADED_MARKER);
+        eventRegistrationRepo.findUserIdsByEventId(eventId).forEach(userId -> members.add(userId.toString()));
+        redisTemplate.opsForSet().add(CounterKeys.seats(eventId), members.toArray(String[]::new));
+    }
 }
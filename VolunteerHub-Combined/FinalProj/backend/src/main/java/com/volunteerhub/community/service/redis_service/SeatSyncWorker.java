@@ -0,0 +1,235 @@
+package com.volunteerhub.community.service.redis_service;
+
+import com.volunteerhub.community.dto.redis.SeatReservation;
+import com.volunteerhub.community.repository.EventRegistrationRepository;
+import com.volunteerhub.ultis.RedisLock;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Ghi các chỗ đã giữ trong stream registration-event xuống event_registration theo lô.
+ * <ul>
+ *     <li>chỗ đã bị trả trước khi ghi (huỷ, hết hạn) thì bỏ qua</li>
+ *     <li>dòng không chèn được (event đã xoá, đã là thành viên) thì trả chỗ trên Redis</li>
+ *     <li>chỗ giữ quá seats.ttl mà vẫn chưa có dòng trong DB thì bị thu hồi</li>
+ * </ul>
+ * Giao nhận at-least-once: entry chỉ được ACK sau khi batch đã ghi xong.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatSyncWorker {
+    private static final Duration CLAIM_MIN_IDLE = Duration.ofMinutes(1);
+    private static final String EXPIRE_LOCK_KEY = "lock:seat-expire";
+    private static final Duration EXPIRE_LOCK_TTL = Duration.ofMinutes(1);
+
+    @Value("${redis.registration-event:registration-event}")
+    private String registrationEvent;
+
+    @Value("${redis.registration-group:registration-group}")
+    private String registrationGroup;
+
+    @Value("${seats.sync-batch-size:500}")
+    private int batchSize;
+
+    @Value("${seats.ttl:10m}")
+    private Duration seatTtl;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventRegistrationRepository eventRegistrationRepo;
+    private final RedisRegisterService redisRegisterService;
+    private final FeedService feedService;
+    private final CounterDeltaService counterDeltaService;
+
+    // mỗi node một consumer riêng: pid@hostname
+    private final String consumerName = ManagementFactory.getRuntimeMXBean().getName();
+
+    private volatile boolean groupReady = false;
+
+    @PostConstruct
+    public void init() {
+        ensureGroup();
+    }
+
+    @Scheduled(fixedDelayString = "${seats.sync-ms:200}")
+    public void sync() {
+        if (!ensureGroup()) return;
+
+        // entry đã nhận nhưng chưa ACK (lần ghi trước lỗi) được xử lý trước
+        List<MapRecord<String, Object, Object>> records = read(ReadOffset.from("0"));
+        if (records.isEmpty()) {
+            records = read(ReadOffset.lastConsumed());
+        }
+        if (records.isEmpty()) return;
+
+        persist(records);
+    }
+
+    /**
+     * Nhận lại entry pending quá lâu của consumer đã chết.
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void reclaim() {
+        if (!ensureGroup()) return;
+
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        PendingMessages pending = ops.pending(registrationEvent, registrationGroup, Range.unbounded(), batchSize);
+
+        RecordId[] stale = pending.stream()
+                .filter(message -> !consumerName.equals(message.getConsumerName()))
+                .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(CLAIM_MIN_IDLE) >= 0)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (stale.length == 0) return;
+
+        List<MapRecord<String, Object, Object>> claimed =
+                ops.claim(registrationEvent, registrationGroup, consumerName, CLAIM_MIN_IDLE, stale);
+        if (claimed.isEmpty()) return;
+
+        log.info("Reclaimed {} pending seat reservations for consumer {}", claimed.size(), consumerName);
+        persist(claimed);
+    }
+
+    /**
+     * Thu hồi chỗ giữ quá seats.ttl mà không có dòng event_registration (worker chết lâu, entry bị mất...).
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 60_000)
+    public void expire() {
+        String token = RedisLock.tryAcquire(stringRedisTemplate, EXPIRE_LOCK_KEY, EXPIRE_LOCK_TTL);
+        if (token == null) return;
+
+        try {
+            List<SeatReservation> stale = redisRegisterService.pendingBefore(
+                    System.currentTimeMillis() - seatTtl.toMillis(), batchSize);
+
+            List<SeatReservation> persisted = new ArrayList<>();
+            List<SeatReservation> expired = new ArrayList<>();
+            for (SeatReservation seat : stale) {
+                boolean exists = eventRegistrationRepo.existsByUserIdAndEventId(seat.getUserId(), seat.getEventId());
+                (exists ? persisted : expired).add(seat);
+            }
+
+            redisRegisterService.persisted(persisted);
+            redisRegisterService.releaseAll(expired);
+            if (!expired.isEmpty()) {
+                log.warn("Released {} seat reservations not persisted within {}", expired.size(), seatTtl);
+            }
+        } catch (Exception e) {
+            log.error("Seat expiry failed", e);
+        } finally {
+            RedisLock.release(stringRedisTemplate, EXPIRE_LOCK_KEY, token);
+        }
+    }
+
+    private void persist(List<MapRecord<String, Object, Object>> records) {
+        // registrationId -> reservation, entry trùng (redeliver) chỉ giữ một
+        Map<Long, SeatReservation> byId = new LinkedHashMap<>();
+        RecordId[] ids = new RecordId[records.size()];
+
+        for (int i = 0; i < records.size(); i++) {
+            MapRecord<String, Object, Object> record = records.get(i);
+            ids[i] = record.getId();
+
+            SeatReservation reservation = toReservation(record);
+            if (reservation != null) byId.put(reservation.getRegistrationId(), reservation);
+        }
+
+        try {
+            apply(new ArrayList<>(byId.values()));
+        } catch (Exception e) {
+            // không ACK: entry ở lại PEL, lượt sau đọc lại từ "0"
+            log.error("Failed to persist {} seat reservations, leaving them pending", records.size(), e);
+            return;
+        }
+
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        ops.acknowledge(registrationEvent, registrationGroup, ids);
+        ops.delete(registrationEvent, ids);
+    }
+
+    private void apply(List<SeatReservation> reservations) {
+        // chỗ đã bị trả (huỷ / hết hạn) trước khi tới lượt ghi thì bỏ qua
+        List<SeatReservation> held = redisRegisterService.stillHeld(reservations);
+        Set<Long> inserted = eventRegistrationRepo.insertReservations(held);
+
+        List<SeatReservation> created = new ArrayList<>();
+        List<SeatReservation> skipped = new ArrayList<>();
+        for (SeatReservation reservation : held) {
+            (inserted.contains(reservation.getRegistrationId()) ? created : skipped).add(reservation);
+        }
+
+        for (SeatReservation reservation : created) {
+            feedService.registrationCreated(reservation.getEventId());
+            counterDeltaService.registrationCreated(reservation.getUserId());
+        }
+
+        // huỷ chen vào giữa lúc kiểm tra và lúc INSERT: xoá lại dòng vừa chèn
+        Set<SeatReservation> stillHeld = new HashSet<>(redisRegisterService.stillHeld(created));
+        List<Long> cancelled = created.stream()
+                .filter(reservation -> !stillHeld.contains(reservation))
+                .map(SeatReservation::getRegistrationId)
+                .toList();
+        eventRegistrationRepo.deleteRegistrations(cancelled).forEach(counterDeltaService::registrationRemoved);
+
+        // không chèn được: đã có đăng ký (redeliver) thì giữ chỗ, còn lại trả chỗ
+        List<SeatReservation> rejected = skipped.stream()
+                .filter(reservation -> !eventRegistrationRepo.existsByUserIdAndEventId(
+                        reservation.getUserId(), reservation.getEventId()))
+                .toList();
+        redisRegisterService.releaseAll(rejected);
+        redisRegisterService.persisted(reservations);
+    }
+
+    private SeatReservation toReservation(MapRecord<String, Object, Object> record) {
+        try {
+            Map<Object, Object> values = record.getValue();
+            return new SeatReservation(
+                    Long.valueOf(values.get("registrationId").toString()),
+                    Long.valueOf(values.get("eventId").toString()),
+                    UUID.fromString(values.get("userId").toString()));
+        } catch (Exception e) {
+            log.warn("Skipping malformed seat reservation {}: {}", record.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private List<MapRecord<String, Object, Object>> read(ReadOffset offset) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                Consumer.from(registrationGroup, consumerName),
+                StreamReadOptions.empty().count(batchSize),
+                StreamOffset.create(registrationEvent, offset)
+        );
+        return records != null ? records : List.of();
+    }
+
+    private boolean ensureGroup() {
+        if (groupReady) return true;
+
+        try {
+            stringRedisTemplate.opsForStream().createGroup(registrationEvent, ReadOffset.from("0"), registrationGroup);
+        } catch (Exception e) {
+            // BUSYGROUP: group đã tồn tại
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (reason == null || !reason.contains("BUSYGROUP")) {
+                log.warn("Cannot create consumer group {} on {}: {}", registrationGroup, registrationEvent, e.getMessage());
+                return false;
+            }
+        }
+
+        groupReady = true;
+        return true;
+    }
+}
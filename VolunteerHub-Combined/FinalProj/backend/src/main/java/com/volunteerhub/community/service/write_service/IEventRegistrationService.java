@@ -2,12 +2,16 @@ package com.volunteerhub.community.service.write_service;
 
 import com.volunteerhub.community.dto.ActionResponse;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface IEventRegistrationService {
     ActionResponse<Void> approveRegistration(Long registrationId);
     ActionResponse<Void> rejectRegistration(Long registrationId);
 
+    List<ActionResponse<Void>> approveRegistrations(Long eventId, List<Long> registrationIds);
+    List<ActionResponse<Void>> approveAllPending(Long eventId);
+
     ActionResponse<Void> registerEvent(UUID userId, Long eventId);
     ActionResponse<Void> unregisterEvent(UUID userId, Long eventId);
 }
\ No newline at end of file
@@ -9,6 +9,8 @@ import com.volunteerhub.community.model.UserProfile;
 import com.volunteerhub.community.repository.CommentRepository;
 import com.volunteerhub.community.repository.PostRepository;
 import com.volunteerhub.community.repository.UserProfileRepository;
+import com.volunteerhub.community.service.redis_service.CounterDeltaService;
+import com.volunteerhub.community.service.redis_service.RedisCountService;
 import com.volunteerhub.community.service.write_service.ICommentService;
 import com.volunteerhub.ultis.SnowflakeIdGenerator;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +30,8 @@ public class CommentService implements ICommentService {
     private final PostRepository postRepository;
     private final UserProfileRepository userProfileRepository;
     private final SnowflakeIdGenerator idGenerator;
+    private final RedisCountService redisCountService;
+    private final CounterDeltaService counterDeltaService;
 
     @Override
     public ActionResponse<Void> createComment(UUID userId, CreateCommentInput input) {
@@ -42,6 +46,8 @@ public class CommentService implements ICommentService {
                 .build();
 
         commentRepository.save(saved);
+        redisCountService.commentCreated(input.getPostId());
+        counterDeltaService.commentCreated(userId, input.getPostId());
 
         LocalDateTime now = LocalDateTime.now();
         return ActionResponse.success(
@@ -71,12 +77,15 @@ public class CommentService implements ICommentService {
 
     @Override
     public ActionResponse<Void> deleteComment(UUID userId, Long commentId) {
-        boolean exists = commentRepository.existsById(commentId);
-        if (!exists) {
+        Optional<Comment> optional = commentRepository.findById(commentId);
+        if (optional.isEmpty()) {
             return ActionResponse.failure("Comment not found");
         }
 
-        commentRepository.deleteById(commentId);
+        Comment comment = optional.get();
+        commentRepository.delete(comment);
+        redisCountService.commentDeleted(comment.getPost().getPostId());
+        counterDeltaService.commentDeleted(comment.getCreatorId(), comment.getPost().getPostId());
         LocalDateTime now = LocalDateTime.now();
 
         return ActionResponse.success(
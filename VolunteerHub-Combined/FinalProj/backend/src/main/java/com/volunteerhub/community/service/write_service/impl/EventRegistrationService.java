@@ -1,24 +1,36 @@
 package com.volunteerhub.community.service.write_service.impl;
 
 import com.volunteerhub.community.dto.ActionResponse;
+import com.volunteerhub.community.dto.RegistrationApproval;
 import com.volunteerhub.community.model.Event;
 import com.volunteerhub.community.model.EventRegistration;
 import com.volunteerhub.community.model.RoleInEvent;
-import com.volunteerhub.community.model.UserProfile;
+import com.volunteerhub.community.model.db_enum.EventRole;
 import com.volunteerhub.community.model.db_enum.ParticipationStatus;
 import com.volunteerhub.community.repository.EventRegistrationRepository;
-import com.volunteerhub.community.repository.EventRepository;
 import com.volunteerhub.community.repository.RoleInEventRepository;
-import com.volunteerhub.community.repository.UserProfileRepository;
+import com.volunteerhub.community.service.cache_service.DetailCache;
+import com.volunteerhub.community.service.redis_service.CounterDeltaService;
+import com.volunteerhub.community.service.redis_service.FeedService;
+import com.volunteerhub.community.service.redis_service.RedisCountService;
+import com.volunteerhub.community.service.redis_service.RedisRegisterService;
 import com.volunteerhub.community.service.write_service.IEventRegistrationService;
 import com.volunteerhub.ultis.SnowflakeIdGenerator;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -27,9 +39,12 @@ public class EventRegistrationService implements IEventRegistrationService {
 
     private final EventRegistrationRepository eventRegistrationRepo;
     private final RoleInEventRepository roleInEventRepo;
-    private final EventRepository eventRepo;
-    private final UserProfileRepository userProfileRepo;
     private final SnowflakeIdGenerator snowflakeIdGenerator;
+    private final RedisCountService redisCountService;
+    private final FeedService feedService;
+    private final CounterDeltaService counterDeltaService;
+    private final RedisRegisterService redisRegisterService;
+    private final DetailCache detailCache;
 
     @Override
     public ActionResponse<Void> approveRegistration(Long registrationId) {
@@ -50,10 +65,14 @@ public class EventRegistrationService implements IEventRegistrationService {
         }
 
         RoleInEvent roleInEvent = RoleInEvent.builder()
+                .id(snowflakeIdGenerator.nextId())
+                .eventRole(EventRole.EVENT_MEMBER)
                 .event(reg.getEvent())
                 .userProfile(reg.getUserProfile())
                 .build();
         roleInEventRepo.save(roleInEvent);
+        redisCountService.memberAdded(eventId, userId);
+        counterDeltaService.memberAdded(eventId);
 
         return ActionResponse.success(
                 registrationId.toString(),
@@ -61,6 +80,28 @@ public class EventRegistrationService implements IEventRegistrationService {
                 LocalDateTime.now());
     }
 
+    @Override
+    public List<ActionResponse<Void>> approveRegistrations(Long eventId, List<Long> registrationIds) {
+        Map<Long, RegistrationApproval> approvals = roleInEventRepo.approveRegistrations(eventId, registrationIds)
+                .stream()
+                .collect(Collectors.toMap(RegistrationApproval::getRegistrationId, Function.identity(), (a, b) -> a));
+        afterApproval(eventId, approvals.values());
+
+        return registrationIds.stream()
+                .map(registrationId -> toResponse(eventId, registrationId, approvals.get(registrationId)))
+                .toList();
+    }
+
+    @Override
+    public List<ActionResponse<Void>> approveAllPending(Long eventId) {
+        List<RegistrationApproval> approvals = roleInEventRepo.approveAllPending(eventId);
+        afterApproval(eventId, approvals);
+
+        return approvals.stream()
+                .map(approval -> toResponse(eventId, approval.getRegistrationId(), approval))
+                .toList();
+    }
+
     @Override
     public ActionResponse<Void> rejectRegistration(Long registrationId) {
         EventRegistration reg = eventRegistrationRepo.findById(registrationId).orElse(null);
@@ -81,6 +122,8 @@ public class EventRegistrationService implements IEventRegistrationService {
 
         // Xóa đăng ký thay vì set status
         eventRegistrationRepo.delete(reg);
+        counterDeltaService.registrationRemoved(userId);
+        redisRegisterService.release(eventId, userId);
 
         return ActionResponse.success(
                 registrationId.toString(),
@@ -88,38 +131,40 @@ public class EventRegistrationService implements IEventRegistrationService {
                 LocalDateTime.now());
     }
 
+    /**
+     * Event có capacity: giữ chỗ trên Redis, hết chỗ thì từ chối luôn, SeatSyncWorker ghi xuống DB sau.
+     * Event không giới hạn: một câu INSERT ... ON CONFLICT DO NOTHING, không đọc trước. Chạy ngoài transaction
+     * để lỗi FK (event không tồn tại) không làm hỏng transaction bao ngoài; một câu lệnh tự nó đã nguyên tử.
+     */
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public ActionResponse<Void> registerEvent(UUID userId, Long eventId) {
-
-        // Kiểm tra đã đăng ký chưa (không cần status)
-        if (eventRegistrationRepo.existsByUserIdAndEventId(userId, eventId)) {
-            return ActionResponse.failure("You are already registered for this event");
+        Event event = detailCache.getEvent(eventId);
+        if (event != null && event.getCapacity() != null) {
+            return reserveSeat(userId, eventId, event.getCapacity());
         }
 
-        if (!eventRepo.existsById(eventId)) {
-            return ActionResponse.failure(
-                    String.format("Event not found (eventId: %d)", eventId));
+        Optional<Long> inserted;
+        try {
+            inserted = eventRegistrationRepo.insertIfAbsent(snowflakeIdGenerator.nextId(), userId, eventId);
+        } catch (DataIntegrityViolationException e) {
+            if (isMissingEvent(e)) {
+                return ActionResponse.failure(
+                        String.format("Event not found (eventId: %d)", eventId));
+            }
+            throw e;
         }
 
-        if (roleInEventRepo.existsByUserProfile_UserIdAndEvent_EventIdAndParticipationStatusIn(
-                userId, eventId, List.of(ParticipationStatus.APPROVED, ParticipationStatus.COMPLETED))) {
-            return ActionResponse.failure(
-                    String.format("User already registered for this event (eventId: %d)", eventId));
+        if (inserted.isEmpty()) {
+            return ActionResponse.failure("You are already registered for this event");
         }
 
-        UserProfile userProfile = userProfileRepo.getReferenceById(userId);
-        Event event = eventRepo.getReferenceById(eventId);
-
-        EventRegistration reg = EventRegistration.builder()
-                .registrationId(snowflakeIdGenerator.nextId())
-                .userProfile(userProfile)
-                .event(event)
-                .build();
-
-        eventRegistrationRepo.save(reg);
+        feedService.registrationCreated(eventId);
+        counterDeltaService.registrationCreated(userId);
+        redisRegisterService.seatTaken(eventId, userId);
 
         return ActionResponse.success(
-                reg.getRegistrationId().toString(),
+                inserted.get().toString(),
                 LocalDateTime.now(),
                 LocalDateTime.now());
     }
@@ -127,18 +172,78 @@ public class EventRegistrationService implements IEventRegistrationService {
     @Override
     public ActionResponse<Void> unregisterEvent(UUID userId, Long eventId) {
         EventRegistration reg = eventRegistrationRepo.findByUserIdAndEventId(userId, eventId).orElse(null);
+        // chỗ đã giữ nhưng SeatSyncWorker chưa ghi xuống DB
+        boolean seated = redisRegisterService.holds(eventId, userId);
 
-        if (reg == null) {
+        if (reg == null && !seated) {
             return ActionResponse.failure(
                     "Unable to unregister because this registration does not exist");
         }
 
+        redisRegisterService.release(eventId, userId);
+        if (reg == null) {
+            return ActionResponse.success(null, null, LocalDateTime.now());
+        }
+
         // Xóa hẳn đăng ký khỏi database (hard delete)
         eventRegistrationRepo.delete(reg);
+        counterDeltaService.registrationRemoved(userId);
 
         return ActionResponse.success(
                 reg.getRegistrationId().toString(),
                 null,
                 LocalDateTime.now());
     }
+
+    private ActionResponse<Void> reserveSeat(UUID userId, Long eventId, int capacity) {
+        Long registrationId = snowflakeIdGenerator.nextId();
+
+        return switch (redisRegisterService.reserve(eventId, capacity, userId, registrationId)) {
+            case RESERVED -> ActionResponse.success(
+                    registrationId.toString(),
+                    LocalDateTime.now(),
+                    LocalDateTime.now());
+            case ALREADY_RESERVED -> ActionResponse.failure("You are already registered for this event");
+            case FULL -> ActionResponse.failure(
+                    String.format("Event is full (eventId: %d, capacity: %d)", eventId, capacity));
+        };
+    }
+
+    private void afterApproval(Long eventId, Collection<RegistrationApproval> approvals) {
+        List<UUID> added = approvals.stream()
+                .filter(RegistrationApproval::isApproved)
+                .map(RegistrationApproval::getUserId)
+                .distinct()
+                .toList();
+        if (added.isEmpty()) return;
+
+        redisCountService.membersAdded(eventId, added);
+        counterDeltaService.membersAdded(eventId, added.size());
+    }
+
+    private static ActionResponse<Void> toResponse(Long eventId, Long registrationId, RegistrationApproval approval) {
+        if (approval == null) {
+            return ActionResponse.<Void>builder()
+                    .ok(false)
+                    .id(registrationId.toString())
+                    .message(String.format("Registration not found (registrationId: %d, eventId: %d)",
+                            registrationId, eventId))
+                    .build();
+        }
+        if (!approval.isApproved()) {
+            return ActionResponse.<Void>builder()
+                    .ok(false)
+                    .id(registrationId.toString())
+                    .message(String.format("User already registered for this event (eventId: %d)", eventId))
+                    .build();
+        }
+        return ActionResponse.success(registrationId.toString(), null, LocalDateTime.now());
+    }
+
+    // 23503 foreign_key_violation trên event_id -> bảng events
+    private static boolean isMissingEvent(DataIntegrityViolationException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sql
+                && "23503".equals(sql.getSQLState())
+                && String.valueOf(sql.getMessage()).contains("\"events\"");
+    }
 }
@@ -11,6 +11,10 @@ import com.volunteerhub.community.model.db_enum.EventState;
 import com.volunteerhub.community.repository.EventRepository;
 import com.volunteerhub.community.repository.RoleInEventRepository;
 import com.volunteerhub.community.repository.UserProfileRepository;
+import com.volunteerhub.community.service.cache_service.DetailCache;
+import com.volunteerhub.community.service.redis_service.CounterDeltaService;
+import com.volunteerhub.community.service.redis_service.FeedService;
+import com.volunteerhub.community.service.redis_service.RedisCountService;
 import com.volunteerhub.community.service.write_service.IEventService;
 import com.volunteerhub.ultis.SnowflakeIdGenerator;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +34,10 @@ public class EventService implements IEventService {
     private final RoleInEventRepository roleInEventRepository;
     private final UserProfileRepository userProfileRepository;
     private final SnowflakeIdGenerator idGenerator;
+    private final DetailCache detailCache;
+    private final RedisCountService redisCountService;
+    private final FeedService feedService;
+    private final CounterDeltaService counterDeltaService;
 
     @Override
     public ActionResponse<Void> approveEvent(Long eventId) {
@@ -38,6 +46,7 @@ public class EventService implements IEventService {
         if (result == 0) {
             return ActionResponse.failure("Event approval failed");
         }
+        detailCache.evictEvent(eventId);
 
         return ActionResponse.success(eventId.toString(),
                 null,
@@ -51,6 +60,7 @@ public class EventService implements IEventService {
         if (result == 0) {
             return ActionResponse.failure("Event rejection failed");
         }
+        detailCache.evictEvent(eventId);
 
         return ActionResponse.success(eventId.toString(),
                 null,
@@ -69,10 +79,12 @@ public class EventService implements IEventService {
                 .eventState(EventState.PENDING)
                 .startTime(input.getStartTime())
                 .endAt(input.getEndAt())
+                .capacity(input.getCapacity())
                 .createdBy(creator)
                 .build();
 
         eventRepository.save(event);
+        feedService.eventCreated(event.getEventId(), event.getCreatedAt());
 
         RoleInEvent roleInEvent = RoleInEvent.builder()
                 .id(idGenerator.nextId())
@@ -82,6 +94,8 @@ public class EventService implements IEventService {
                 .build();
 
         roleInEventRepository.save(roleInEvent);
+        redisCountService.memberAdded(event.getEventId(), userId);
+        counterDeltaService.memberAdded(event.getEventId());
 
         return ActionResponse.success(
                 event.getEventId().toString(),
@@ -89,8 +103,18 @@ public class EventService implements IEventService {
                 null);
     }
 
+    /**
+     * capacity null giữ nguyên giới hạn cũ, clearCapacity = true bỏ giới hạn.
+     * Bỏ giới hạn không đụng tới seats:event:{id} và seats:pending: chỗ đã giữ vẫn được SeatSyncWorker ghi xuống DB
+     * (worker kiểm tra chỗ còn trong set), set tiếp tục được cập nhật qua seatTaken / release
+     * nên đặt lại capacity sau đó vẫn đếm đúng. registerEvent đổi sang ghi thẳng DB ngay khi DetailCache bị evict.
+     */
     @Override
     public ActionResponse<Void> editEvent(UUID userId, EditEventInput input) {
+        if (Boolean.TRUE.equals(input.getClearCapacity()) && input.getCapacity() != null) {
+            return ActionResponse.failure("capacity and clearCapacity cannot be set together");
+        }
+
         Optional<Event> optional = eventRepository.findById(input.getEventId());
         if (optional.isEmpty()) {
             return ActionResponse.failure("Event not found");
@@ -100,7 +124,13 @@ public class EventService implements IEventService {
         event.setEventName(input.getEventName());
         event.setEventDescription(input.getEventDescription());
         event.setEventLocation(input.getEventLocation());
+        if (Boolean.TRUE.equals(input.getClearCapacity())) {
+            event.setCapacity(null);
+        } else if (input.getCapacity() != null) {
+            event.setCapacity(input.getCapacity());
+        }
         eventRepository.save(event);
+        detailCache.evictEvent(event.getEventId());
 
         return ActionResponse.success(
                 event.getEventId().toString(),
@@ -116,6 +146,9 @@ public class EventService implements IEventService {
         }
 
         eventRepository.deleteById(eventId);
+        detailCache.evictEvent(eventId);
+        redisCountService.eventDeleted(eventId);
+        feedService.eventDeleted(eventId);
 
         return ActionResponse.success(
                 eventId.toString(),
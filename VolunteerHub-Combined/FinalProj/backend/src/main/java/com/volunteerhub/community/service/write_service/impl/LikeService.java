@@ -1,46 +1,35 @@
 package com.volunteerhub.community.service.write_service.impl;
 
 import com.volunteerhub.community.dto.ActionResponse;
-import com.volunteerhub.community.model.Like;
-import com.volunteerhub.community.model.UserProfile;
+import com.volunteerhub.community.dto.redis.LikeToggleResult;
 import com.volunteerhub.community.model.db_enum.TableType;
-import com.volunteerhub.community.repository.LikeRepository;
-import com.volunteerhub.community.repository.UserProfileRepository;
+import com.volunteerhub.community.service.redis_service.RedisLikeService;
 import com.volunteerhub.community.service.write_service.ILikeService;
-import com.volunteerhub.ultis.SnowflakeIdGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 import java.util.UUID;
 
 @Service
-@Transactional
 @RequiredArgsConstructor
 public class LikeService implements ILikeService {
 
-    private final LikeRepository likeRepository;
-    private final UserProfileRepository userProfileRepository;
-    private final SnowflakeIdGenerator idGenerator;
+    // Ghi vào Redis, LikeSyncWorker đồng bộ xuống bảng likes theo batch
+    private final RedisLikeService redisLikeService;
 
     @Override
     public ActionResponse<Void> like(UUID userId, Long targetId, String targetType) {
-        UserProfile userProfile = userProfileRepository.getReferenceById(userId);
+        TableType tableType = TableType.valueOf(targetType);
 
-        Like like = Like.builder()
-                .likeId(idGenerator.nextId())
-                .targetId(targetId)
-                .tableType(TableType.valueOf(targetType))
-                .createdBy(userProfile)
-                .build();
-
-        likeRepository.save(like);
+        LikeToggleResult result = redisLikeService.like(targetId, tableType.name(), userId);
+        if (!result.isChanged()) {
+            return ActionResponse.failure("Already liked");
+        }
 
         LocalDateTime now = LocalDateTime.now();
         return ActionResponse.success(
-                like.getLikeId().toString(),
+                targetId.toString(),
                 now,
                 now
         );
@@ -48,16 +37,16 @@ public class LikeService implements ILikeService {
 
     @Override
     public ActionResponse<Void> unlike(UUID userId, Long targetId, String targetType) {
-        Optional<Like> existing = likeRepository.findByTargetIdAndTableType(targetId, TableType.valueOf(targetType));
-        if (existing.isEmpty()) {
+        TableType tableType = TableType.valueOf(targetType);
+
+        LikeToggleResult result = redisLikeService.unlike(targetId, tableType.name(), userId);
+        if (!result.isChanged()) {
             return ActionResponse.failure("Like not found");
         }
 
-        likeRepository.deleteById(existing.get().getLikeId());
-
         LocalDateTime now = LocalDateTime.now();
         return ActionResponse.success(
-                existing.get().getLikeId().toString(),
+                targetId.toString(),
                 now,
                 now
         );
@@ -9,6 +9,10 @@ import com.volunteerhub.community.model.UserProfile;
 import com.volunteerhub.community.repository.EventRepository;
 import com.volunteerhub.community.repository.PostRepository;
 import com.volunteerhub.community.repository.UserProfileRepository;
+import com.volunteerhub.community.service.cache_service.DetailCache;
+import com.volunteerhub.community.service.redis_service.CounterDeltaService;
+import com.volunteerhub.community.service.redis_service.FeedService;
+import com.volunteerhub.community.service.redis_service.RedisCountService;
 import com.volunteerhub.community.service.write_service.IPostService;
 import com.volunteerhub.ultis.SnowflakeIdGenerator;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +32,10 @@ public class PostService implements IPostService {
     private final UserProfileRepository userProfileRepository;
     private final EventRepository eventRepository;
     private final SnowflakeIdGenerator idGenerator;
+    private final DetailCache detailCache;
+    private final RedisCountService redisCountService;
+    private final FeedService feedService;
+    private final CounterDeltaService counterDeltaService;
 
     @Override
     public ActionResponse<Void> createPost(UUID userId, CreatePostInput input) {
@@ -42,6 +50,9 @@ public class PostService implements IPostService {
                 .build();
 
         postRepository.save(post);
+        redisCountService.postCreated(input.getEventId());
+        counterDeltaService.postCreated(userId, input.getEventId());
+        feedService.postCreated(post.getPostId(), input.getEventId(), post.getCreatedAt());
 
         LocalDateTime now = LocalDateTime.now();
         return ActionResponse.success(
@@ -61,6 +72,7 @@ public class PostService implements IPostService {
         Post post = optional.get();
         post.setContent(input.getContent());
         postRepository.save(post);
+        detailCache.evictPost(post.getPostId());
 
         return ActionResponse.success(
                 post.getPostId().toString(),
@@ -71,12 +83,17 @@ public class PostService implements IPostService {
 
     @Override
     public ActionResponse<Void> deletePost(UUID userId, Long postId) {
-        boolean exists = postRepository.existsById(postId);
-        if (!exists) {
+        Optional<Post> optional = postRepository.findById(postId);
+        if (optional.isEmpty()) {
             return ActionResponse.failure("Post not found");
         }
 
-        postRepository.deleteById(postId);
+        Post post = optional.get();
+        postRepository.delete(post);
+        detailCache.evictPost(postId);
+        redisCountService.postDeleted(post.getEventId());
+        counterDeltaService.postDeleted(post.getCreatorId(), post.getEventId());
+        feedService.postDeleted(postId);
 
         LocalDateTime now = LocalDateTime.now();
         return ActionResponse.success(
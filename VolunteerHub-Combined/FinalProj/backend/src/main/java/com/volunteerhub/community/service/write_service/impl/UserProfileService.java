@@ -4,6 +4,7 @@ import com.volunteerhub.community.dto.rest.request.EditUserProfile;
 import com.volunteerhub.community.dto.ActionResponse;
 import com.volunteerhub.community.model.UserProfile;
 import com.volunteerhub.community.repository.UserProfileRepository;
+import com.volunteerhub.community.service.cache_service.UserProfileMiniCache;
 import com.volunteerhub.community.service.write_service.IUserProfileService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,7 @@ import java.util.UUID;
 public class UserProfileService implements IUserProfileService {
 
     private final UserProfileRepository userProfileRepository;
+    private final UserProfileMiniCache userProfileMiniCache;
 
     @Override
     public ActionResponse<Void> editUserProfile(UUID userId, EditUserProfile input) {
@@ -31,6 +33,7 @@ public class UserProfileService implements IUserProfileService {
         userProfile.setEmail(input.getEmail());
         userProfile.setFullName(input.getFullName());
         userProfileRepository.save(userProfile);
+        userProfileMiniCache.evict(userId);
 
         return ActionResponse.success(
                 userProfile.getUserId().toString(),
@@ -0,0 +1,59 @@
+package com.volunteerhub.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.graphql.data.method.annotation.support.AnnotatedControllerConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor dùng chung. Bật virtual thread bằng spring.threads.virtual.enabled=true (mặc định tắt):
+ * Tomcat xử lý request trên virtual thread (Spring Boot tự cấu hình), resolver GraphQL trả giá trị
+ * đồng bộ chạy trên virtual thread riêng, email gửi trên virtual thread.
+ */
+@Configuration
+public class ExecutorConfiguration {
+
+    /**
+     * Gửi mail (SMTP chặn I/O) cho EmailOutboxWorker. Mỗi thread giữ một kết nối SMTP cho cả batch,
+     * nên pool size = số kết nối SMTP đồng thời; hàng đợi có giới hạn, đầy thì từ chối.
+     */
+    @Bean(name = "emailExecutor")
+    public ThreadPoolTaskExecutor emailExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtual,
+                                                @Value("${app.email.concurrency:4}") int concurrency,
+                                                @Value("${app.email.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("email-");
+        if (virtual) {
+            executor.setThreadFactory(Thread.ofVirtual().name("email-", 0).factory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Resolver không trả CompletableFuture (repository, JdbcTemplate...) được gọi qua executor này,
+     * mỗi field một virtual thread nên các field cùng cấp chạy song song thay vì nối tiếp trên thread request.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public static BeanPostProcessor graphQlVirtualThreadExecutor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AnnotatedControllerConfigurer configurer) {
+                    configurer.setExecutor(new VirtualThreadTaskExecutor("graphql-"));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,20 +1,38 @@
 package com.volunteerhub.configuration;
 
 import com.volunteerhub.ultis.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class IdGeneratorConfiguration {
     @Bean
-    public SnowflakeIdGenerator snowflakeIdGenerator() {
-        return SnowflakeIdGenerator.builder()
-                .workerIdBits(5)
-                .datacenterIdBits(5)
+    public SnowflakeIdGenerator snowflakeIdGenerator(WorkerIdLease workerIdLease,
+                                                     @Value("${snowflake.worker-id-bits:5}") int workerIdBits,
+                                                     @Value("${snowflake.datacenter-id-bits:5}") int datacenterIdBits) {
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.builder()
+                .workerIdBits(workerIdBits)
+                .datacenterIdBits(datacenterIdBits)
                 .sequenceBits(12)
-                .workerId(0)
-                .datacenterId(0)
+                .workerId(workerIdLease.getWorkerId())
+                .datacenterId(workerIdLease.getDatacenterId())
                 .startEpoch(1577836800000L)
+                .maxBackwardMillis(10_000L)
                 .build();
+
+        // lease có thể được giành lại ở slot khác slot cũ
+        workerIdLease.onChange(held -> {
+            if (held) {
+                generator.reassign(workerIdLease.getWorkerId(), workerIdLease.getDatacenterId());
+                generator.resume();
+            } else {
+                generator.suspend();
+            }
+        });
+        // generator tự từ chối cấp id khi quá hạn lease, kể cả khi renew() bị treo chờ Redis
+        workerIdLease.onExtend(generator::leaseUntil);
+        generator.leaseUntil(workerIdLease.getValidUntil());
+        return generator;
     }
 }
@@ -0,0 +1,139 @@
+package com.volunteerhub.configuration;
+
+import com.volunteerhub.ultis.RedisLock;
+import com.volunteerhub.ultis.SmileCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chạy một lần: chuyển các key do RedisTemplate cũ (JDK serialization cho cả key lẫn value, vd verify:*)
+ * sang key UTF-8 + value UTF-8 / Smile, giữ nguyên TTL; xoá snapshot JSON cũ của DetailCache.
+ * Đánh dấu xong bằng key migration:redis-codec:v1, nhiều node thì chỉ một node chạy.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisCodecMigration implements ApplicationRunner {
+    private static final String DONE_KEY = "migration:redis-codec:v1";
+    private static final String LOCK_KEY = "lock:redis-codec-migration";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(10);
+    private static final int CHUNK = 1000;
+
+    // header của Java serialization stream: AC ED 00 05
+    private static final byte[] JDK_KEY_PATTERN = {(byte) 0xAC, (byte) 0xED, 0x00, 0x05, '*'};
+    private static final List<String> SNAPSHOT_PATTERNS = List.of("cache:event:*", "cache:post:*");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String token;
+        try {
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(DONE_KEY))) return;
+            token = RedisLock.tryAcquire(stringRedisTemplate, LOCK_KEY, LOCK_TTL);
+            if (token == null) return;
+        } catch (Exception e) {
+            log.warn("Skipping Redis codec migration: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            Integer migrated = stringRedisTemplate.execute((RedisCallback<Integer>) this::migrateJdkKeys);
+            long snapshots = SNAPSHOT_PATTERNS.stream().mapToLong(this::deleteMatching).sum();
+
+            stringRedisTemplate.opsForValue().set(DONE_KEY, String.valueOf(System.currentTimeMillis()));
+            log.info("Redis codec migration done: {} JDK keys rewritten, {} cached snapshots dropped",
+                    migrated, snapshots);
+        } catch (Exception e) {
+            log.error("Redis codec migration failed", e);
+        } finally {
+            RedisLock.release(stringRedisTemplate, LOCK_KEY, token);
+        }
+    }
+
+    private int migrateJdkKeys(RedisConnection connection) {
+        List<byte[]> keys = new ArrayList<>();
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(
+                ScanOptions.scanOptions().match(JDK_KEY_PATTERN).count(CHUNK).build())) {
+            cursor.forEachRemaining(keys::add);
+        }
+
+        int migrated = 0;
+        for (byte[] key : keys) {
+            if (migrateKey(connection, key)) migrated++;
+        }
+        return migrated;
+    }
+
+    private boolean migrateKey(RedisConnection connection, byte[] rawKey) {
+        try {
+            // RedisTemplate cũ chỉ dùng opsForValue
+            if (connection.keyCommands().type(rawKey) != DataType.STRING) {
+                log.warn("Skipping non-string JDK key of {} bytes", rawKey.length);
+                return false;
+            }
+
+            if (!(jdk.deserialize(rawKey) instanceof String key)) return false;
+
+            byte[] rawValue = connection.stringCommands().get(rawKey);
+            Long ttlMillis = connection.keyCommands().pTtl(rawKey);
+            if (rawValue == null || ttlMillis == null || ttlMillis == -2) return false; // đã hết hạn
+
+            byte[] newKey = key.getBytes(StandardCharsets.UTF_8);
+            byte[] newValue = encode(jdk.deserialize(rawValue));
+            if (ttlMillis > 0) {
+                connection.stringCommands().set(newKey, newValue,
+                        Expiration.milliseconds(ttlMillis), RedisStringCommands.SetOption.upsert());
+            } else {
+                connection.stringCommands().set(newKey, newValue);
+            }
+            connection.keyCommands().del(rawKey);
+            return true;
+        } catch (Exception e) {
+            log.warn("Cannot migrate JDK-serialized key: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private long deleteMatching(String pattern) {
+        List<String> keys = new ArrayList<>();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(CHUNK).build())) {
+            cursor.forEachRemaining(keys::add);
+        }
+
+        long deleted = 0;
+        for (int i = 0; i < keys.size(); i += CHUNK) {
+            Long count = stringRedisTemplate.delete(keys.subList(i, Math.min(i + CHUNK, keys.size())));
+            deleted += count != null ? count : 0;
+        }
+        return deleted;
+    }
+
+    /**
+     * String / số ghi thẳng UTF-8 (đọc được bằng StringRedisTemplate, INCR được), còn lại dùng Smile.
+     */
+    private static byte[] encode(Object value) {
+        if (value instanceof String || value instanceof Number) {
+            return value.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return SmileCodec.encode(value);
+    }
+}
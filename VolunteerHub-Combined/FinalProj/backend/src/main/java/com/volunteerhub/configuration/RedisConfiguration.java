@@ -1,12 +1,23 @@
 package com.volunteerhub.configuration;
 
+import com.volunteerhub.ultis.SmileCodec;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+/**
+ * Template Redis:
+ * <ul>
+ *     <li>StringRedisTemplate (Spring Boot): counter, set likes/members, stream, token - UTF-8 thuần, INCR được tại chỗ</li>
+ *     <li>binaryRedisTemplate: payload có cấu trúc đã encode bằng SmileCodec (DetailCache)</li>
+ *     <li>redisTemplate: key UTF-8, value Smile - không còn JDK serialization</li>
+ * </ul>
+ */
 @Configuration
 @AllArgsConstructor
 public class RedisConfiguration {
@@ -15,6 +26,28 @@ public class RedisConfiguration {
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(SmileCodec.serializer(Object.class));
+        template.setHashValueSerializer(SmileCodec.serializer(Object.class));
         return template;
     }
+
+    @Bean
+    public RedisTemplate<String, byte[]> binaryRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
 }
@@ -0,0 +1,192 @@
+package com.volunteerhub.configuration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Giữ một slot (datacenterId, workerId) cho node hiện tại bằng SET NX + TTL trên Redis,
+ * gia hạn định kỳ. Mất lease thì SnowflakeIdGenerator ngừng cấp id cho đến khi giành lại được slot cũ,
+ * hoặc một slot trống khác nếu slot cũ đã bị node khác chiếm.
+ * <p>
+ * Mỗi lần giành / gia hạn thành công, lease có hiệu lực tới {@code validUntil = lúc gửi lệnh + ttl - renewInterval}:
+ * sớm hơn lúc key hết hạn trên Redis một khoảng renewInterval. Generator tự kiểm tra mốc này khi cấp id,
+ * không phụ thuộc lượt renew() kế tiếp có chạy đúng giờ hay không. Timeout lệnh Redis phải nhỏ hơn renewInterval.
+ */
+@Slf4j
+@Component
+public class WorkerIdLease {
+    private static final String KEY_PREFIX = "snowflake:worker:";
+
+    // chỉ gia hạn / xoá khi key vẫn thuộc về node này
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final int workerIdBits;
+    private final int datacenterIdBits;
+    private final Duration ttl;
+    private final long renewMs;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+
+    @Getter
+    private volatile int slot = -1;
+    private volatile boolean held = false;
+    @Getter
+    private volatile long validUntil = 0L;
+    private volatile Consumer<Boolean> listener = ignored -> {};
+    private volatile LongConsumer validUntilListener = ignored -> {};
+
+    public WorkerIdLease(StringRedisTemplate stringRedisTemplate,
+                         @Value("${snowflake.worker-id-bits:5}") int workerIdBits,
+                         @Value("${snowflake.datacenter-id-bits:5}") int datacenterIdBits,
+                         @Value("${snowflake.lease-ttl-ms:30000}") long ttlMs,
+                         @Value("${snowflake.lease-renew-ms:10000}") long renewMs,
+                         @Value("${spring.data.redis.timeout:60s}") Duration commandTimeout) {
+        if (renewMs <= 0 || renewMs * 2 > ttlMs)
+            throw new IllegalArgumentException("snowflake.lease-renew-ms must be in (0, lease-ttl-ms / 2]");
+        if (commandTimeout.toMillis() >= renewMs)
+            throw new IllegalArgumentException("spring.data.redis.timeout (" + commandTimeout
+                    + ") must be shorter than snowflake.lease-renew-ms (" + renewMs + "ms)");
+
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.workerIdBits = workerIdBits;
+        this.datacenterIdBits = datacenterIdBits;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.renewMs = renewMs;
+    }
+
+    @PostConstruct
+    public void acquire() {
+        if (!acquireFree()) {
+            throw new IllegalStateException("No free snowflake worker id among " + slotCount() + " slots");
+        }
+        held = true;
+    }
+
+    @Scheduled(fixedDelayString = "${snowflake.lease-renew-ms:10000}")
+    public void renew() {
+        if (slot < 0) return;
+
+        boolean renewed;
+        try {
+            // lấy mốc trước khi gửi lệnh: TTL trên Redis tính từ lúc lệnh tới nơi, không sớm hơn mốc này
+            long sentAt = System.currentTimeMillis();
+            renewed = renewSlot();
+            if (renewed) {
+                extend(sentAt);
+            } else {
+                // slot cũ đã thuộc node khác: ngừng cấp id trước rồi mới chuyển sang slot trống khác
+                changeHeld(false);
+                renewed = acquireFree();
+            }
+        } catch (Exception e) {
+            // Redis chập chờn: generator vẫn cấp id tới validUntil của lần gia hạn cuối rồi tự dừng
+            log.error("Cannot renew snowflake lease for slot {}", slot, e);
+            renewed = held && System.currentTimeMillis() < validUntil;
+        }
+
+        changeHeld(renewed);
+    }
+
+    @PreDestroy
+    public void release() {
+        if (slot < 0) return;
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + slot), owner);
+        } catch (Exception e) {
+            log.warn("Cannot release snowflake lease for slot {}: {}", slot, e.getMessage());
+        }
+    }
+
+    private boolean renewSlot() {
+        String key = KEY_PREFIX + slot;
+        Long result = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(key), owner, String.valueOf(ttl.toMillis()));
+        if (result != null && result == 1L) return true;
+
+        // key đã hết hạn: thử giành lại đúng slot cũ
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, owner, ttl));
+    }
+
+    private boolean acquireFree() {
+        int slots = slotCount();
+        // bắt đầu từ vị trí ngẫu nhiên để các node khởi động cùng lúc ít tranh nhau
+        int start = Math.floorMod(owner.hashCode(), slots);
+
+        for (int i = 0; i < slots; i++) {
+            int candidate = (start + i) % slots;
+            long sentAt = System.currentTimeMillis();
+            Boolean ok = stringRedisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + candidate, owner, ttl);
+            if (Boolean.TRUE.equals(ok)) {
+                slot = candidate;
+                extend(sentAt);
+                log.info("Leased snowflake slot {} (datacenterId={}, workerId={}) as {}",
+                        slot, getDatacenterId(), getWorkerId(), owner);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void extend(long sentAt) {
+        validUntil = sentAt + ttl.toMillis() - renewMs;
+        validUntilListener.accept(validUntil);
+    }
+
+    private void changeHeld(boolean renewed) {
+        if (renewed == held) return;
+
+        held = renewed;
+        if (renewed) {
+            log.info("Snowflake lease for slot {} recovered", slot);
+        } else {
+            log.error("Snowflake lease for slot {} lost, id generation suspended", slot);
+        }
+        listener.accept(renewed);
+    }
+
+    private int slotCount() {
+        return 1 << (workerIdBits + datacenterIdBits);
+    }
+
+    public void onChange(Consumer<Boolean> listener) {
+        this.listener = listener;
+    }
+
+    public void onExtend(LongConsumer listener) {
+        this.validUntilListener = listener;
+    }
+
+    public long getWorkerId() {
+        return slot & ((1L << workerIdBits) - 1);
+    }
+
+    public long getDatacenterId() {
+        return slot >>> workerIdBits;
+    }
+}
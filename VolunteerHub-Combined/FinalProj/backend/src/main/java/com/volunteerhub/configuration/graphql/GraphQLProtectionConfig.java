@@ -2,6 +2,7 @@ package com.volunteerhub.configuration.graphql;
 
 import graphql.analysis.MaxQueryDepthInstrumentation;
 import graphql.scalars.ExtendedScalars;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
@@ -15,6 +16,12 @@ public class GraphQLProtectionConfig {
         return wiringBuilder -> wiringBuilder.scalar(ExtendedScalars.Json);
     }
 
+    // parse + validate một lần cho mỗi query text, hỗ trợ persisted query
+    @Bean
+    public GraphQlSourceBuilderCustomizer preparsedDocumentCustomizer(PersistedDocumentProvider documentProvider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider));
+    }
+
     @Bean
     public MaxQueryDepthInstrumentation depthInstrumentation() {
         return new MaxQueryDepthInstrumentation(6);
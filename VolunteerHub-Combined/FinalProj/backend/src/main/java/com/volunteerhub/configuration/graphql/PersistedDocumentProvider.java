@@ -0,0 +1,198 @@
+package com.volunteerhub.configuration.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Automatic persisted queries (giao thức Apollo, extensions.persistedQuery.sha256Hash) + cache document
+ * đã parse và validate:
+ * <ul>
+ *     <li>client chỉ gửi hash; hash chưa biết thì trả PersistedQueryNotFound, client gửi lại kèm query
+ *         để đăng ký (hash -> query lưu Caffeine + Redis, dùng chung giữa các node)</li>
+ *     <li>cùng một query text chỉ parse + validate một lần, các request sau lấy Document từ cache</li>
+ * </ul>
+ * Đăng ký không cần đăng nhập nên bị giới hạn để không ai lấp đầy Redis được: chỉ lưu query đã parse + validate
+ * thành công và không dài quá max-query-length, mỗi lần đăng ký trừ registration-cost vào budget của client
+ * (QueryBudgetService), và cả cluster chỉ ghi tối đa max-registrations-per-day key mới mỗi ngày.
+ * Query không được lưu vẫn chạy bình thường, chỉ là client phải gửi kèm query text.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PersistedDocumentProvider implements PreparsedDocumentProvider {
+    private static final String KEY_PREFIX = "apq:";
+    private static final String DAILY_COUNT_PREFIX = "apq-registered:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetService budgetService;
+
+    @Value("${cache.persisted-queries.redis-ttl:7d}")
+    private Duration redisTtl;
+
+    @Value("${cache.persisted-queries.max-query-length:10000}")
+    private int maxQueryLength;
+
+    @Value("${cache.persisted-queries.registration-cost:2000}")
+    private long registrationCost;
+
+    @Value("${cache.persisted-queries.max-registrations-per-day:1000}")
+    private long maxRegistrationsPerDay;
+
+    // query text -> document đã validate; frontend chỉ có vài chục operation nên cache nhỏ là đủ
+    private final Cache<String, PreparsedDocumentEntry> documents = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .recordStats()
+            .build();
+
+    // sha256 -> query text
+    private final Cache<String, String> queries = Caffeine.newBuilder()
+            .maximumSize(2_000)
+            .recordStats()
+            .build();
+
+    @PostConstruct
+    public void init() {
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql.documents");
+        CaffeineCacheMetrics.monitor(meterRegistry, queries, "graphql.persisted-queries");
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        ExecutionInput input = executionInput;
+        String hash = persistedQueryHash(input);
+        // hash cần đăng ký sau khi query parse + validate xong
+        String registering = null;
+
+        if (hash != null) {
+            String query = input.getQuery();
+            if (query == null || query.isBlank()) {
+                query = lookup(hash);
+                if (query == null) {
+                    return error("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND", "miss");
+                }
+                String text = query;
+                input = input.transform(builder -> builder.query(text));
+            } else {
+                if (!hash.equalsIgnoreCase(sha256(query))) {
+                    return error("provided sha does not match query", "INTERNAL_SERVER_ERROR", "invalid");
+                }
+                if (!query.equals(queries.getIfPresent(hash))) {
+                    registering = hash;
+                }
+            }
+        }
+
+        ExecutionInput resolved = input;
+        PreparsedDocumentEntry entry = documents.get(resolved.getQuery(), ignored -> parseAndValidateFunction.apply(resolved));
+        if (registering != null && !entry.hasErrors()) {
+            register(registering, resolved.getQuery(),
+                    resolved.getGraphQLContext().getOrDefault(QueryClientInterceptor.CLIENT_KEY, "unknown"));
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    private String lookup(String hash) {
+        return queries.get(hash, key -> {
+            try {
+                return stringRedisTemplate.opsForValue().get(KEY_PREFIX + key);
+            } catch (Exception e) {
+                log.warn("Cannot read persisted query {}: {}", key, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private void register(String hash, String query, String client) {
+        if (query.length() > maxQueryLength) {
+            count("too-large");
+            return;
+        }
+
+        try {
+            // node khác đã đăng ký: chỉ nạp vào cache local, không trừ budget, không tính vào hạn mức ngày
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(KEY_PREFIX + hash))) {
+                queries.put(hash, query);
+                return;
+            }
+            if (!budgetService.tryConsume(client, registrationCost)) {
+                count("throttled");
+                return;
+            }
+            // cache local có giới hạn kích thước, giữ lại để client không bị trừ budget lại ở request sau
+            queries.put(hash, query);
+            if (!withinDailyLimit()) {
+                log.warn("Persisted query limit of {} per day reached, not storing {}", maxRegistrationsPerDay, hash);
+                count("limited");
+                return;
+            }
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + hash, query, redisTtl);
+            count("registered");
+        } catch (Exception e) {
+            log.warn("Cannot store persisted query {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private boolean withinDailyLimit() {
+        String key = DAILY_COUNT_PREFIX + LocalDate.now(ZoneOffset.UTC);
+        Long registered = stringRedisTemplate.opsForValue().increment(key);
+        if (registered != null && registered == 1L) {
+            stringRedisTemplate.expire(key, Duration.ofDays(2));
+        }
+        return registered == null || registered <= maxRegistrationsPerDay;
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("graphql.persisted-queries.result", "result", result).increment();
+    }
+
+    private CompletableFuture<PreparsedDocumentEntry> error(String message, String code, String result) {
+        count(result);
+        return CompletableFuture.completedFuture(new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(Map.of("code", code))
+                .build()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String persistedQueryHash(ExecutionInput input) {
+        Map<String, Object> extensions = input.getExtensions();
+        if (extensions == null || !(extensions.get("persistedQuery") instanceof Map<?, ?> persisted)) return null;
+
+        Object hash = ((Map<String, Object>) persisted).get("sha256Hash");
+        return hash instanceof String value && !value.isBlank() ? value : null;
+    }
+
+    private static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
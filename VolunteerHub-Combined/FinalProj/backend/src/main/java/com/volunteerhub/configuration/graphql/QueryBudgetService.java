@@ -0,0 +1,68 @@
+package com.volunteerhub.configuration.graphql;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Token bucket theo client trên Redis (dùng chung mọi node): mỗi query trừ đúng cost đã tính,
+ * bucket hồi graphql.cost.refill-per-second token mỗi giây, tối đa graphql.cost.bucket-capacity.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QueryBudgetService {
+
+    /**
+     * KEYS[1] = cost:bucket:{client}
+     * ARGV    = capacity, refillPerSecond, cost, nowMillis
+     * Trả về 1 nếu đủ token (đã trừ), 0 nếu không.
+     */
+    private static final DefaultRedisScript<Long> CONSUME_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local cost = tonumber(ARGV[3])
+            local now = tonumber(ARGV[4])
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or capacity
+            local ts = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+            local allowed = 0
+            if tokens >= cost then
+                tokens = tokens - cost
+                allowed = 1
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+            return allowed
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${graphql.cost.bucket-capacity:20000}")
+    private long capacity;
+
+    @Value("${graphql.cost.refill-per-second:2000}")
+    private long refillPerSecond;
+
+    public boolean tryConsume(String client, long cost) {
+        try {
+            Long allowed = redisTemplate.execute(CONSUME_SCRIPT,
+                    List.of("cost:bucket:" + client),
+                    String.valueOf(capacity),
+                    String.valueOf(refillPerSecond),
+                    String.valueOf(cost),
+                    String.valueOf(System.currentTimeMillis()));
+            return allowed == null || allowed == 1;
+        } catch (Exception e) {
+            // Redis lỗi thì không chặn request, giới hạn cost mỗi query vẫn còn
+            log.warn("Cannot check query budget for {}: {}", client, e.getMessage());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.volunteerhub.configuration.graphql;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * Gắn định danh client vào GraphQLContext để QueryCostInstrumentation trừ budget đúng bucket:
+ * userId nếu đã đăng nhập, còn lại theo địa chỉ IP.
+ * <p>
+ * Không đọc X-Forwarded-For ở đây: header do client tự gửi, đổi mỗi request là có bucket mới.
+ * Chạy sau reverse proxy tin cậy thì bật server.forward-headers-strategy, khi đó getRemoteAddress()
+ * đã là IP client do proxy ghi.
+ */
+@Component
+public class QueryClientInterceptor implements WebGraphQlInterceptor {
+    public static final String CLIENT_KEY = "queryCostClient";
+
+    // JwtTokenFilter gắn principal này cho request không có token
+    private static final String ANONYMOUS = "ANONYMOUS";
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String client = clientOf(request);
+        request.configureExecutionInput((input, builder) -> builder.graphQLContext(Map.of(CLIENT_KEY, client)).build());
+        return chain.next(request);
+    }
+
+    private static String clientOf(WebGraphQlRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !ANONYMOUS.equals(auth.getName())) {
+            return "user:" + auth.getName();
+        }
+
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote != null ? "ip:" + remote.getAddress().getHostAddress() : "ip:unknown";
+    }
+}
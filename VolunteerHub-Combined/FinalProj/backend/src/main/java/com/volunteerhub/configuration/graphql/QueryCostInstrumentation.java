@@ -0,0 +1,134 @@
+package com.volunteerhub.configuration.graphql;
+
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tính cost tĩnh của query trước khi thực thi, nhân size qua các tầng list lồng nhau:
+ * <ul>
+ *     <li>field có size / limit (hoặc filter.limit): 1 + size * cost con, cộng phần OFFSET phải bỏ qua (page * size)</li>
+ *     <li>field trả về list không có size: nhân defaultListSize, trừ content ngay dưới field đã có size (Page)</li>
+ *     <li>field còn lại: 1 + cost con</li>
+ * </ul>
+ * Query vượt maxQueryCost bị từ chối; còn lại trừ vào token bucket của client (QueryBudgetService).
+ */
+@Slf4j
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+    // mỗi dòng bị OFFSET bỏ qua tính 1/OFFSET_WEIGHT đơn vị
+    private static final long OFFSET_WEIGHT = 100;
+
+    private final QueryBudgetService budgetService;
+    private final MeterRegistry meterRegistry;
+    private final long maxQueryCost;
+    private final int defaultListSize;
+
+    public QueryCostInstrumentation(QueryBudgetService budgetService, MeterRegistry meterRegistry,
+                                    long maxQueryCost, int defaultListSize) {
+        this.budgetService = budgetService;
+        this.meterRegistry = meterRegistry;
+        this.maxQueryCost = maxQueryCost;
+        this.defaultListSize = defaultListSize;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        long cost = cost(context);
+        meterRegistry.summary("graphql.query.cost").record(cost);
+
+        if (cost > maxQueryCost) {
+            meterRegistry.counter("graphql.query.rejected", "reason", "cost").increment();
+            throw new AbortExecutionException(
+                    String.format("Query cost %d exceeds the maximum of %d", cost, maxQueryCost));
+        }
+
+        String client = context.getGraphQLContext().getOrDefault(QueryClientInterceptor.CLIENT_KEY, "unknown");
+        if (!budgetService.tryConsume(client, cost)) {
+            meterRegistry.counter("graphql.query.rejected", "reason", "budget").increment();
+            log.warn("Query budget exhausted for {} (cost {})", client, cost);
+            throw new AbortExecutionException("Query budget exhausted, please retry later");
+        }
+
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    private long cost(ExecutionContext context) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(context.getGraphQLSchema())
+                .document(context.getDocument())
+                .operationName(context.getOperationDefinition().getName())
+                .coercedVariables(context.getCoercedVariables())
+                .build();
+
+        // post-order: cost của field con được cộng dồn vào field cha trước khi tới lượt cha
+        Map<QueryVisitorFieldEnvironment, Long> childCosts = new HashMap<>();
+        long[] total = {0};
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment env) {
+                if (env.isTypeNameIntrospectionField()) return;
+
+                long cost = fieldCost(env, childCosts.getOrDefault(env, 0L));
+                QueryVisitorFieldEnvironment parent = env.getParentEnvironment();
+                if (parent == null) {
+                    total[0] = saturatedAdd(total[0], cost);
+                } else {
+                    childCosts.merge(parent, cost, QueryCostInstrumentation::saturatedAdd);
+                }
+            }
+        });
+        return total[0];
+    }
+
+    private long fieldCost(QueryVisitorFieldEnvironment env, long childCost) {
+        int size = pageSize(env.getArguments());
+        if (size > 0) {
+            long offset = (long) Math.max(0, intArgument(env.getArguments(), "page")) * size / OFFSET_WEIGHT;
+            return saturatedAdd(1 + offset, saturatedMultiply(size, childCost));
+        }
+
+        boolean list = GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()));
+        QueryVisitorFieldEnvironment parent = env.getParentEnvironment();
+        boolean pageContent = parent != null && pageSize(parent.getArguments()) > 0;
+        long multiplier = list && !pageContent ? defaultListSize : 1;
+        return saturatedAdd(1, saturatedMultiply(multiplier, childCost));
+    }
+
+    private static int pageSize(Map<String, Object> arguments) {
+        int size = intArgument(arguments, "size");
+        if (size <= 0) size = intArgument(arguments, "limit");
+        if (size <= 0 && arguments.get("filter") instanceof Map<?, ?> filter && filter.get("limit") instanceof Number limit) {
+            size = limit.intValue();
+        }
+        return size;
+    }
+
+    private static int intArgument(Map<String, Object> arguments, String name) {
+        return arguments.get(name) instanceof Number value ? value.intValue() : 0;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        if (a == 0 || b == 0) return 0;
+        return a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+}
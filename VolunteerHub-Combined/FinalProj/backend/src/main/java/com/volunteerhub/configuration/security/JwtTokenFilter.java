@@ -1,5 +1,6 @@
 package com.volunteerhub.configuration.security;
 
+import com.volunteerhub.authentication.dto.JwtPrincipal;
 import com.volunteerhub.authentication.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -18,7 +19,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -33,9 +33,10 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String token = extractJwt(request);
+        JwtPrincipal principal = token != null ? jwtService.verify(token).orElse(null) : null;
 
-        if (token != null && jwtService.validateToken(token)) {
-            authenticate(token);
+        if (principal != null) {
+            authenticate(principal);
         } else {
             authenticateAnonymous();
         }
@@ -43,19 +44,17 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private void authenticate(String token) {
-        UUID userId = jwtService.getUserIdFromToken(token).orElse(null);
-        List<String> roles = jwtService.rolesFromToken(token).orElse(null);
-
-        if (userId == null || roles == null) {
+    private void authenticate(JwtPrincipal principal) {
+        // refresh token không mang roles, không dùng để xác thực request
+        if (principal.getRoles().isEmpty()) {
             return;
         }
 
         List<SimpleGrantedAuthority> authorities =
-                roles.stream().map(SimpleGrantedAuthority::new).toList();
+                principal.getRoles().stream().map(SimpleGrantedAuthority::new).toList();
 
         Authentication auth =
-                new UsernamePasswordAuthenticationToken(userId, null, authorities);
+                new UsernamePasswordAuthenticationToken(principal.getUserId(), null, authorities);
 
         SecurityContextHolder.getContext().setAuthentication(auth);
     }
@@ -39,7 +39,7 @@ public class WebSecurityConfig {
                         -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth ->
                         auth.requestMatchers("/api/auth/**").permitAll()
-                                .requestMatchers("/graphql", "/graphiql", "/voyager").permitAll()
+                                .requestMatchers("/graphql", "/graphql-ws", "/graphiql", "/voyager").permitAll()
                                 .anyRequest().authenticated()
                 );
 
@@ -0,0 +1,35 @@
+package com.volunteerhub.ultis;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lock SET NX + TTL cho job định kỳ chạy trên nhiều node.
+ * Mỗi lượt giữ một token riêng, chỉ xoá key khi token còn khớp:
+ * lượt chạy quá TTL không xoá nhầm lock của node khác đã giành được sau đó.
+ */
+public class RedisLock {
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * Trả về token nếu giành được lock, null nếu node khác đang giữ.
+     */
+    public static String tryAcquire(StringRedisTemplate redisTemplate, String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, ttl)) ? token : null;
+    }
+
+    public static void release(StringRedisTemplate redisTemplate, String key, String token) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+    }
+}
@@ -0,0 +1,43 @@
+package com.volunteerhub.ultis;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+
+/**
+ * Codec nhị phân (Jackson Smile) cho payload có cấu trúc trên Redis: cùng mô hình với JSON
+ * nhưng nhỏ hơn và encode/decode nhanh hơn, không kèm header/tên class như JDK serialization.
+ */
+public class SmileCodec {
+    private static final ObjectMapper MAPPER = SmileMapper.builder(SmileFactory.builder().build())
+            .addModule(new JavaTimeModule())
+            // snapshot thêm field mới thì bản cũ trên Redis vẫn đọc được
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    public static byte[] encode(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot encode " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    public static <T> T decode(byte[] bytes, Class<T> type) {
+        try {
+            return MAPPER.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot decode " + type.getSimpleName(), e);
+        }
+    }
+
+    public static <T> RedisSerializer<T> serializer(Class<T> type) {
+        return new Jackson2JsonRedisSerializer<>(MAPPER, type);
+    }
+}
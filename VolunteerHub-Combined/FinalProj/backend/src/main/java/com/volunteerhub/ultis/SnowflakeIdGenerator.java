@@ -3,19 +3,45 @@ package com.volunteerhub.ultis;
 import lombok.Builder;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
+/**
+ * Snowflake id: timestamp | datacenterId | workerId | sequence.
+ * <p>
+ * Timestamp (tính từ startEpoch) và sequence cuối cùng được gói chung trong một AtomicLong
+ * {@code state = (timestamp << sequenceBits) | sequence}, nên mỗi lần cấp id chỉ cần một CAS.
+ * Khi hết sequence trong một millisecond hoặc đồng hồ bị lùi (trong giới hạn maxBackwardMillis),
+ * generator mượn timestamp logic tiếp theo thay vì busy-wait hoặc ném exception.
+ * <p>
+ * maxBackwardMillis = 0: không chấp nhận đồng hồ lùi, hết sequence thì chờ sang millisecond kế tiếp.
+ * Không truyền (null) hoặc âm: dùng mặc định 10s.
+ */
 public class SnowflakeIdGenerator {
+    private static final long DEFAULT_MAX_BACKWARD_MILLIS = 10_000L;
+
     private final long startEpoch;
-    private final long workerId;
-    private final long datacenterId;
+    private final long maxWorkerId;
+    private final long maxDatacenterId;
 
+    private final long sequenceBits;
     private final long sequenceMask;
     private final long workerIdShift;
     private final long datacenterIdShift;
     private final long timestampLeftShift;
+    private final long maxBackwardMillis;
+    private final LongSupplier clock;
+
+    // (timestamp - startEpoch) << sequenceBits | sequence đã cấp gần nhất
+    private final AtomicLong state = new AtomicLong(0L);
+
+    // datacenterId << datacenterIdShift | workerId << workerIdShift, đổi một lần khi lease chuyển sang slot khác
+    private volatile long node;
+
+    // false khi lease worker id bị mất, xem WorkerIdLease
+    private volatile boolean active = true;
 
-    private final AtomicLong lastTimestamp = new AtomicLong(-1L);
-    private final AtomicLong sequence = new AtomicLong(0L);
+    // epoch millis: không cấp id có timestamp từ mốc này trở đi (lease worker id có thể đã hết hạn)
+    private volatile long leaseDeadline = Long.MAX_VALUE;
 
     @Builder
     public SnowflakeIdGenerator(
@@ -24,63 +50,130 @@ public class SnowflakeIdGenerator {
             long sequenceBits,
             long workerId,
             long datacenterId,
-            long startEpoch
+            long startEpoch,
+            Long maxBackwardMillis,
+            LongSupplier clock
     ) {
         this.startEpoch = startEpoch;
-        this.workerId = workerId;
-        this.datacenterId = datacenterId;
-
-        long maxDatacenterId = (1L << datacenterIdBits) - 1;
-        long maxWorkerId = (1L << workerIdBits) - 1;
+        this.maxDatacenterId = (1L << datacenterIdBits) - 1;
+        this.maxWorkerId = (1L << workerIdBits) - 1;
+        this.sequenceBits = sequenceBits;
         this.sequenceMask = (1L << sequenceBits) - 1;
 
         this.workerIdShift = sequenceBits;
         this.datacenterIdShift = sequenceBits + workerIdBits;
         this.timestampLeftShift = sequenceBits + workerIdBits + datacenterIdBits;
+        this.maxBackwardMillis = maxBackwardMillis != null && maxBackwardMillis >= 0
+                ? maxBackwardMillis
+                : DEFAULT_MAX_BACKWARD_MILLIS;
+        this.clock = clock != null ? clock : System::currentTimeMillis;
+
+        reassign(workerId, datacenterId);
+    }
 
+    /**
+     * Đổi sang (workerId, datacenterId) mới, dùng khi WorkerIdLease phải giành slot khác.
+     * Chỉ gọi lúc generator đang suspend.
+     */
+    public void reassign(long workerId, long datacenterId) {
         if (workerId > maxWorkerId || workerId < 0)
             throw new IllegalArgumentException("workerId out of range (0-" + maxWorkerId + ")");
         if (datacenterId > maxDatacenterId || datacenterId < 0)
             throw new IllegalArgumentException("datacenterId out of range (0-" + maxDatacenterId + ")");
+
+        this.node = (datacenterId << datacenterIdShift) | (workerId << workerIdShift);
     }
 
     public long nextId() {
-        while (true) {
-            long current = System.currentTimeMillis();
-            long last = lastTimestamp.get();
+        long reserved = reserve(1);
+        return makeId(reserved >>> sequenceBits, reserved & sequenceMask);
+    }
 
-            if (current < last) {
-                throw new RuntimeException("Clock moved backwards.");
-            }
+    /**
+     * Cấp n id liên tiếp (cùng timestamp) bằng một CAS duy nhất.
+     */
+    public long[] nextIds(int n) {
+        if (n <= 0 || n > sequenceMask + 1)
+            throw new IllegalArgumentException("n out of range (1-" + (sequenceMask + 1) + ")");
 
-            if (current == last) {
-                long seq = (sequence.incrementAndGet()) & sequenceMask;
-                if (seq == 0) {
-                    current = waitNextMillis(last);
-                } else {
-                    return makeId(current, seq);
-                }
+        long reserved = reserve(n);
+        long timestamp = reserved >>> sequenceBits;
+        long first = (reserved & sequenceMask) - n + 1;
+
+        long base = makeId(timestamp, first);
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = base + i;
+        }
+        return ids;
+    }
+
+    /**
+     * @return state mới sau khi giữ chỗ, sequence trong đó là sequence cuối cùng của khoảng vừa cấp
+     */
+    private long reserve(int n) {
+        if (!active) {
+            throw new IllegalStateException("Worker id lease lost, refusing to generate id");
+        }
+
+        while (true) {
+            long now = clock.getAsLong() - startEpoch;
+            long prev = state.get();
+            long last = prev >>> sequenceBits;
+
+            long timestamp;
+            long lastSeq;
+            if (now > last) {
+                timestamp = now;
+                lastSeq = n - 1;
             } else {
-                if (lastTimestamp.compareAndSet(last, current)) {
-                    sequence.set(0);
-                    return makeId(current, 0);
+                // cùng millisecond, đồng hồ lùi, hoặc đang chạy trước đồng hồ do mượn timestamp
+                if (last - now > maxBackwardMillis) {
+                    throw new IllegalStateException(
+                            "Clock moved backwards by " + (last - now) + "ms, refusing to generate id");
                 }
+                timestamp = last;
+                lastSeq = (prev & sequenceMask) + n;
+                if (lastSeq > sequenceMask) {
+                    if (last + 1 - now > maxBackwardMillis) {
+                        // đã chạy trước đồng hồ tới giới hạn: chờ đồng hồ thay vì mượn thêm
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    // hết sequence: mượn millisecond kế tiếp
+                    timestamp = last + 1;
+                    lastSeq = n - 1;
+                }
+            }
+
+            // so timestamp trong id chứ không phải đồng hồ: id mượn millisecond cũng không được vượt hạn lease
+            if (timestamp + startEpoch >= leaseDeadline) {
+                throw new IllegalStateException("Worker id lease expired, refusing to generate id");
+            }
+
+            long next = (timestamp << sequenceBits) | lastSeq;
+            if (state.compareAndSet(prev, next)) {
+                return next;
             }
         }
     }
 
-    private long makeId(long timestamp, long seq) {
-        return ((timestamp - startEpoch) << timestampLeftShift)
-                | (datacenterId << datacenterIdShift)
-                | (workerId << workerIdShift)
-                | seq;
+    public void suspend() {
+        this.active = false;
     }
 
-    private long waitNextMillis(long lastTimestamp) {
-        long ts = System.currentTimeMillis();
-        while (ts <= lastTimestamp) {
-            ts = System.currentTimeMillis();
-        }
-        return ts;
+    public void resume() {
+        this.active = true;
+    }
+
+    /**
+     * Hạn của lease worker id hiện tại (epoch millis), WorkerIdLease đẩy lên sau mỗi lần gia hạn.
+     */
+    public void leaseUntil(long deadline) {
+        this.leaseDeadline = deadline;
+    }
+
+    private long makeId(long timestamp, long seq) {
+        return (timestamp << timestampLeftShift) | node | seq;
     }
 }
@@ -0,0 +1,13 @@
+package com.volunteerhub.ultis.page;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CursorInfo {
+    private int size;
+    private String endCursor;
+    private boolean hasNext;
+    private Integer totalElements; // chỉ tính khi client chọn field này
+}
@@ -0,0 +1,13 @@
+package com.volunteerhub.ultis.page;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CursorPage<T> {
+    private List<T> content;
+    private CursorInfo cursorInfo;
+}
@@ -0,0 +1,73 @@
+package com.volunteerhub.ultis.page;
+
+import graphql.schema.DataFetchingEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyset pagination trên Snowflake id (tăng dần theo thời gian):
+ * WHERE id < :cursor ORDER BY id DESC LIMIT size + 1, không cần COUNT(*).
+ */
+public class CursorUtils {
+    private static final String PREFIX = "id:";
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cursor rỗng nghĩa là trang đầu tiên.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public static int safeSize(Integer size) {
+        return size != null && size > 0 ? size : 10;
+    }
+
+    /**
+     * rows phải được lấy với LIMIT size + 1 để biết còn trang sau hay không.
+     */
+    public static <T> CursorPage<T> from(List<T> rows,
+                                         int size,
+                                         Function<T, Long> idOf,
+                                         DataFetchingEnvironment env,
+                                         LongSupplier totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String endCursor = content.isEmpty() ? null : encode(idOf.apply(content.get(content.size() - 1)));
+
+        Integer total = env.getSelectionSet().contains("cursorInfo/totalElements")
+                ? (int) totalElements.getAsLong()
+                : null;
+
+        return CursorPage.<T>builder()
+                .content(content)
+                .cursorInfo(CursorInfo.builder()
+                        .size(size)
+                        .endCursor(endCursor)
+                        .hasNext(hasNext)
+                        .totalElements(total)
+                        .build())
+                .build();
+    }
+}
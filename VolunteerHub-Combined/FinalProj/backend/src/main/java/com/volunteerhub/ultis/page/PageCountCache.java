@@ -0,0 +1,50 @@
+package com.volunteerhub.ultis.page;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Tổng số phần tử cho PageInfo, chỉ dùng khi client chọn totalElements/totalPages.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageCountCache {
+    // Dưới ngưỡng này COUNT(*) đủ rẻ và reltuples có thể chưa được ANALYZE
+    private static final long APPROXIMATE_THRESHOLD = 10_000;
+
+    private static final String RELTUPLES_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Cache<String, Long> counts = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
+    /**
+     * Bảng không có điều kiện lọc: đọc ước lượng từ pg_class.reltuples.
+     */
+    public long approximate(String table, LongSupplier exactCount) {
+        return counts.get("table:" + table, key -> {
+            Long estimate = jdbcTemplate.queryForObject(RELTUPLES_SQL, Long.class, table);
+            if (estimate == null || estimate < APPROXIMATE_THRESHOLD) {
+                return exactCount.getAsLong();
+            }
+            return estimate;
+        });
+    }
+
+    /**
+     * Có điều kiện lọc: COUNT(*) chính xác nhưng được cache ngắn hạn.
+     */
+    public long cached(String key, LongSupplier exactCount) {
+        return counts.get(key, k -> exactCount.getAsLong());
+    }
+}
@@ -1,6 +1,13 @@
 package com.volunteerhub.ultis.page;
 
+import graphql.schema.DataFetchingEnvironment;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 public class PageUtils {
     public static PageInfo from(Page<?> page) {
@@ -14,7 +21,46 @@ public class PageUtils {
                 .build();
     }
 
+    public static PageInfo from(Slice<?> slice, Long totalElements) {
+        PageInfo.PageInfoBuilder builder = PageInfo.builder()
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext() ? 1 : 0)
+                .hasPrevious(slice.hasPrevious() ? 1 : 0);
+
+        if (totalElements != null) {
+            int size = Math.max(slice.getSize(), 1);
+            builder.totalElements(totalElements.intValue())
+                    .totalPages((int) ((totalElements + size - 1) / size));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Lấy một Slice (size + 1 dòng, không COUNT). Chỉ gọi totalElements khi
+     * selection set có pageInfo.totalElements hoặc pageInfo.totalPages.
+     */
+    public static <T> OffsetPage<T> page(DataFetchingEnvironment env,
+                                         int page,
+                                         int size,
+                                         Function<Pageable, Slice<T>> query,
+                                         LongSupplier totalElements) {
+        Slice<T> slice = query.apply(PageRequest.of(page, size));
+        Long total = needsTotals(env) ? totalElements.getAsLong() : null;
+
+        return OffsetPage.<T>builder()
+                .content(slice.getContent())
+                .pageInfo(from(slice, total))
+                .build();
+    }
+
+    public static boolean needsTotals(DataFetchingEnvironment env) {
+        return env.getSelectionSet().contains("pageInfo/totalElements")
+                || env.getSelectionSet().contains("pageInfo/totalPages");
+    }
+
     public static PageInfo empty() {
         return PageInfo.builder().build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+-- Baseline: schema như Hibernate (ddl-auto) đã tạo trước khi có Flyway.
+-- Database đã tồn tại được baseline ở version 1 (spring.flyway.baseline-on-migrate) nên file này chỉ chạy trên database trống.
+
+CREATE TABLE IF NOT EXISTS user_auth (
+    user_id        uuid         NOT NULL PRIMARY KEY,
+    email          varchar(100) NOT NULL,
+    password_hash  text         NOT NULL,
+    status         varchar(30)  NOT NULL,
+    role           varchar(30)  NOT NULL,
+    email_verified boolean      NOT NULL,
+    CONSTRAINT uniq_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS user_profiles (
+    user_id       uuid         NOT NULL PRIMARY KEY,
+    username      varchar(100) NOT NULL UNIQUE,
+    full_name     varchar(100) NOT NULL,
+    email         varchar(100),
+    status        varchar(255) NOT NULL,
+    bio           text,
+    avatar_url    varchar(255),
+    phone_number  varchar(255),
+    address       varchar(255),
+    date_of_birth date,
+    created_at    timestamp(6) NOT NULL,
+    updated_at    timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS events (
+    event_id          bigint       NOT NULL PRIMARY KEY,
+    event_name        varchar(200) NOT NULL,
+    event_description text,
+    event_location    text,
+    created_by        uuid REFERENCES user_profiles (user_id),
+    created_at        timestamp(6) NOT NULL,
+    updated_at        timestamp(6),
+    start_time        timestamp(6),
+    end_at            timestamp(6),
+    event_state       varchar(255) NOT NULL,
+    metadata          jsonb
+);
+
+CREATE TABLE IF NOT EXISTS posts (
+    post_id    bigint       NOT NULL PRIMARY KEY,
+    title      varchar(255),
+    content    text         NOT NULL,
+    image_url  varchar(255),
+    event_id   bigint REFERENCES events (event_id),
+    created_by uuid REFERENCES user_profiles (user_id),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    metadata   jsonb
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+    comment_id bigint       NOT NULL PRIMARY KEY,
+    content    text         NOT NULL,
+    post_id    bigint REFERENCES posts (post_id),
+    created_by uuid REFERENCES user_profiles (user_id),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    metadata   jsonb
+);
+
+CREATE TABLE IF NOT EXISTS likes (
+    like_id     bigint       NOT NULL PRIMARY KEY,
+    target_id   bigint,
+    target_type varchar(255),
+    created_by  uuid REFERENCES user_profiles (user_id),
+    created_at  timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS role_in_event (
+    id                   bigint       NOT NULL PRIMARY KEY,
+    user_profile_id      uuid REFERENCES user_profiles (user_id),
+    event_id             bigint REFERENCES events (event_id),
+    created_at           timestamp(6) NOT NULL,
+    updated_at           timestamp(6),
+    event_role           varchar(255) NOT NULL,
+    participation_status varchar(255) NOT NULL,
+    UNIQUE (user_profile_id, event_id)
+);
+
+CREATE TABLE IF NOT EXISTS event_registration (
+    registration_id bigint       NOT NULL PRIMARY KEY,
+    event_id        bigint       NOT NULL REFERENCES events (event_id),
+    user_id         uuid         NOT NULL REFERENCES user_profiles (user_id),
+    created_at      timestamp(6) NOT NULL,
+    updated_at      timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_event ON event_registration (user_id, event_id);
+
+CREATE TABLE IF NOT EXISTS blood_donation (
+    id              bigserial    NOT NULL PRIMARY KEY,
+    full_name       varchar(255) NOT NULL,
+    email           varchar(255) NOT NULL,
+    phone_number    varchar(20)  NOT NULL,
+    blood_type      varchar(10)  NOT NULL,
+    medical_history text,
+    desired_date    date         NOT NULL,
+    created_at      timestamp(6),
+    status          varchar(50)
+);
@@ -0,0 +1,36 @@
+-- Index cho các query nóng của community (resolver, DataLoader, reconciler).
+
+-- likes: bỏ bản ghi trùng trước khi thêm unique, giữ like_id nhỏ nhất
+DELETE FROM likes a
+USING likes b
+WHERE a.like_id > b.like_id
+  AND a.created_by = b.created_by
+  AND a.target_type = b.target_type
+  AND a.target_id = b.target_id;
+
+-- upsert idempotent (ON CONFLICT DO NOTHING) và isLiked fallback theo created_by
+CREATE UNIQUE INDEX IF NOT EXISTS uq_likes_user_target ON likes (created_by, target_type, target_id);
+-- đếm / seed theo target
+CREATE INDEX IF NOT EXISTS idx_likes_target ON likes (target_type, target_id);
+
+-- posts: listPosts / keyset theo event, countByEventId, dashboard theo eventIds
+CREATE INDEX IF NOT EXISTS idx_posts_event_post ON posts (event_id, post_id DESC);
+CREATE INDEX IF NOT EXISTS idx_posts_event_created ON posts (event_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_posts_created_by ON posts (created_by);
+
+-- comments: listComment / keyset theo post, countByPost
+CREATE INDEX IF NOT EXISTS idx_comments_post_comment ON comments (post_id, comment_id DESC);
+CREATE INDEX IF NOT EXISTS idx_comments_post_created ON comments (post_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_comments_created_by ON comments (created_by);
+
+-- events: lọc theo trạng thái, sắp theo thời gian tạo
+CREATE INDEX IF NOT EXISTS idx_events_created_at ON events (created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_events_state_created ON events (event_state, created_at DESC);
+
+-- event_registration: danh sách đăng ký của một event (duyệt đăng ký)
+CREATE INDEX IF NOT EXISTS idx_event_registration_event ON event_registration (event_id, registration_id);
+
+-- role_in_event: chỉ các thành viên đang tham gia (check đăng ký trùng, đếm thành viên)
+CREATE INDEX IF NOT EXISTS idx_role_in_event_active
+    ON role_in_event (event_id, user_profile_id)
+    WHERE participation_status IN ('APPROVED', 'COMPLETED');
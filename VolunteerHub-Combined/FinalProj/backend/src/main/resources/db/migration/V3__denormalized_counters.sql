@@ -0,0 +1,38 @@
+-- Counter lưu ngay trên dòng, CounterRollupWorker cộng delta theo lô sau mỗi lần ghi.
+
+ALTER TABLE user_profiles ADD COLUMN IF NOT EXISTS event_count integer NOT NULL DEFAULT 0;
+ALTER TABLE user_profiles ADD COLUMN IF NOT EXISTS post_count integer NOT NULL DEFAULT 0;
+ALTER TABLE user_profiles ADD COLUMN IF NOT EXISTS comment_count integer NOT NULL DEFAULT 0;
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS member_count integer NOT NULL DEFAULT 0;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS post_count integer NOT NULL DEFAULT 0;
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS comment_count integer NOT NULL DEFAULT 0;
+
+-- backfill: mỗi counter một câu GROUP BY
+UPDATE user_profiles u SET event_count = s.total
+FROM (SELECT user_id, COUNT(*) AS total FROM event_registration GROUP BY user_id) s
+WHERE u.user_id = s.user_id;
+
+UPDATE user_profiles u SET post_count = s.total
+FROM (SELECT created_by, COUNT(*) AS total FROM posts GROUP BY created_by) s
+WHERE u.user_id = s.created_by;
+
+UPDATE user_profiles u SET comment_count = s.total
+FROM (SELECT created_by, COUNT(*) AS total FROM comments GROUP BY created_by) s
+WHERE u.user_id = s.created_by;
+
+UPDATE events e SET member_count = s.total
+FROM (SELECT event_id, COUNT(*) AS total
+      FROM role_in_event
+      WHERE participation_status IN ('APPROVED', 'COMPLETED')
+      GROUP BY event_id) s
+WHERE e.event_id = s.event_id;
+
+UPDATE events e SET post_count = s.total
+FROM (SELECT event_id, COUNT(*) AS total FROM posts GROUP BY event_id) s
+WHERE e.event_id = s.event_id;
+
+UPDATE posts p SET comment_count = s.total
+FROM (SELECT post_id, COUNT(*) AS total FROM comments GROUP BY post_id) s
+WHERE p.post_id = s.post_id;
@@ -0,0 +1,17 @@
+-- Outbox cho email: ghi cùng transaction với signup / resend, EmailOutboxWorker gửi dần.
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    email_id        bigint       PRIMARY KEY,
+    recipient       varchar(255) NOT NULL,
+    subject         varchar(255) NOT NULL,
+    body            text         NOT NULL,
+    status          varchar(20)  NOT NULL DEFAULT 'PENDING',
+    attempts        integer      NOT NULL DEFAULT 0,
+    next_attempt_at timestamp    NOT NULL DEFAULT now(),
+    last_error      text,
+    created_at      timestamp    NOT NULL DEFAULT now(),
+    sent_at         timestamp
+);
+
+-- worker chỉ quét các dòng còn chờ gửi
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (next_attempt_at) WHERE status = 'PENDING';
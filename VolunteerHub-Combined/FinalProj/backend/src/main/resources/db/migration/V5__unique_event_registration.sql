@@ -0,0 +1,24 @@
+-- Mỗi user chỉ một đăng ký cho một event: registerEvent dùng INSERT ... ON CONFLICT (user_id, event_id).
+
+-- bỏ đăng ký trùng do hai request đồng thời, giữ registration_id nhỏ nhất
+DELETE FROM event_registration a
+USING event_registration b
+WHERE a.registration_id > b.registration_id
+  AND a.user_id = b.user_id
+  AND a.event_id = b.event_id;
+
+-- event_count (V3) đã tính cả bản trùng
+UPDATE user_profiles u SET event_count = s.total
+FROM (SELECT user_id, COUNT(*) AS total FROM event_registration GROUP BY user_id) s
+WHERE u.user_id = s.user_id AND u.event_count <> s.total;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uq_event_registration_user_event') THEN
+        ALTER TABLE event_registration
+            ADD CONSTRAINT uq_event_registration_user_event UNIQUE (user_id, event_id);
+    END IF;
+END $$;
+
+-- index thường cũ trên (user_id, event_id) đã bị unique constraint thay thế
+DROP INDEX IF EXISTS idx_user_event;
@@ -0,0 +1,7 @@
+-- Số chỗ tối đa của event, NULL = không giới hạn (đăng ký ghi thẳng xuống DB như cũ).
+-- Event có capacity thì chỗ được giữ trên Redis (seats:event:{id}) rồi SeatSyncWorker ghi xuống theo lô.
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS capacity integer;
+
+ALTER TABLE events DROP CONSTRAINT IF EXISTS chk_events_capacity;
+ALTER TABLE events ADD CONSTRAINT chk_events_capacity CHECK (capacity IS NULL OR capacity > 0);
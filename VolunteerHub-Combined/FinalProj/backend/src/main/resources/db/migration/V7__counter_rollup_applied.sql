@@ -0,0 +1,10 @@
+-- Stream id của các delta counter đã cộng, ghi cùng transaction với UPDATE:
+-- entry bị giao lại (crash giữa commit và ACK) không bị cộng lần hai.
+-- Dòng cũ hơn counters.applied-retention được xoá định kỳ.
+
+CREATE TABLE IF NOT EXISTS counter_rollup_applied (
+    stream_id  varchar(40) PRIMARY KEY,
+    applied_at timestamp   NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_counter_rollup_applied_at ON counter_rollup_applied (applied_at);
@@ -0,0 +1,2 @@
+-- EmailOutboxWorker.purge xoá dòng SENT / DEAD quá hạn lưu theo created_at
+CREATE INDEX IF NOT EXISTS idx_email_outbox_done ON email_outbox (status, created_at) WHERE status IN ('SENT', 'DEAD');
@@ -0,0 +1,19 @@
+-- Snapshot (pg_current_snapshot) của lượt repair gần nhất cho từng cột counter.
+-- Delta trong stream mang txid của transaction ghi: txid đã nằm trong snapshot nghĩa là repair đã đếm dòng đó,
+-- CounterRollupWorker bỏ qua thay vì cộng lần hai.
+-- '3:3:' là snapshot rỗng (3 = txid thường đầu tiên): chưa repair lần nào thì mọi delta đều được cộng.
+
+CREATE TABLE IF NOT EXISTS counter_repair_snapshot (
+    column_name varchar(40) PRIMARY KEY,
+    snapshot    text        NOT NULL,
+    repaired_at timestamp
+);
+
+INSERT INTO counter_repair_snapshot (column_name, snapshot)
+VALUES ('USER_EVENT_COUNT', '3:3:'),
+       ('USER_POST_COUNT', '3:3:'),
+       ('USER_COMMENT_COUNT', '3:3:'),
+       ('EVENT_MEMBER_COUNT', '3:3:'),
+       ('EVENT_POST_COUNT', '3:3:'),
+       ('POST_COMMENT_COUNT', '3:3:')
+ON CONFLICT (column_name) DO NOTHING;
@@ -0,0 +1,181 @@
+package com.volunteerhub.authentication.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy EmailOutboxWorker trên Postgres thật (Testcontainers) và SMTP giả (GreenMail).
+ * Bỏ qua khi máy không có Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class EmailOutboxWorkerTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @RegisterExtension
+    static final GreenMailExtension GREEN_MAIL = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(
+                new ClassPathResource("db/migration/V4__email_outbox.sql"),
+                new ClassPathResource("db/migration/V8__email_outbox_retention.sql"))
+                .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("TRUNCATE email_outbox");
+    }
+
+    @Test
+    void claimedRowIsSent() throws Exception {
+        insert(1L, "PENDING", 0);
+
+        worker(smtp(GREEN_MAIL.getSmtp().getPort()), 6).dispatch();
+
+        MimeMessage[] received = GREEN_MAIL.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("Subject 1", received[0].getSubject());
+
+        Map<String, Object> row = row(1L);
+        assertEquals("SENT", row.get("status"));
+        assertEquals(1, row.get("attempts"));
+        assertNotNull(row.get("sent_at"));
+        assertNull(row.get("last_error"));
+    }
+
+    @Test
+    void failedSendIsRetriedWithBackoff() throws Exception {
+        insert(1L, "PENDING", 0);
+        EmailOutboxWorker worker = worker(smtp(unusedPort()), 6);
+
+        worker.dispatch();
+
+        Map<String, Object> row = row(1L);
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(1, row.get("attempts"));
+        assertNotNull(row.get("last_error"));
+
+        // backoff-base 30s, lệch ±20%
+        double delay = jdbcTemplate.queryForObject(
+                "SELECT EXTRACT(EPOCH FROM next_attempt_at - now()) FROM email_outbox WHERE email_id = 1", Double.class);
+        assertTrue(delay > 20 && delay < 37, "unexpected backoff " + delay);
+
+        // chưa đến hạn: lượt sau không nhận lại dòng này
+        worker.dispatch();
+        assertEquals(1, row(1L).get("attempts"));
+    }
+
+    @Test
+    void rowBecomesDeadAfterMaxAttempts() throws Exception {
+        insert(1L, "PENDING", 0);
+        EmailOutboxWorker worker = worker(smtp(unusedPort()), 3);
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            worker.dispatch();
+            assertEquals(attempt, row(1L).get("attempts"));
+            jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = now() WHERE email_id = 1");
+        }
+
+        assertEquals("DEAD", row(1L).get("status"));
+
+        // DEAD không bao giờ được nhận lại
+        worker.dispatch();
+        assertEquals(3, row(1L).get("attempts"));
+    }
+
+    @Test
+    void purgeRemovesOldSentAndDeadRows() {
+        insert(1L, "SENT", 8);
+        insert(2L, "SENT", 1);
+        insert(3L, "DEAD", 8);
+        insert(4L, "DEAD", 31);
+        insert(5L, "PENDING", 40);
+
+        worker(smtp(GREEN_MAIL.getSmtp().getPort()), 6).purge();
+
+        List<Long> remaining = jdbcTemplate.queryForList(
+                "SELECT email_id FROM email_outbox ORDER BY email_id", Long.class);
+        assertEquals(List.of(2L, 3L, 5L), remaining);
+    }
+
+    private EmailOutboxWorker worker(JavaMailSenderImpl mailSender, int maxAttempts) {
+        EmailService emailService = new EmailService(mailSender, null, null);
+        EmailOutboxWorker worker = new EmailOutboxWorker(
+                jdbcTemplate, mailSender, emailService, new SyncTaskExecutor(), new SimpleMeterRegistry());
+
+        ReflectionTestUtils.setField(worker, "batchSize", 20);
+        ReflectionTestUtils.setField(worker, "concurrency", 1);
+        ReflectionTestUtils.setField(worker, "ratePerSecond", 100);
+        ReflectionTestUtils.setField(worker, "pollMs", 1000L);
+        ReflectionTestUtils.setField(worker, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(worker, "backoffBase", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(worker, "backoffMax", Duration.ofHours(1));
+        ReflectionTestUtils.setField(worker, "claimLease", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(worker, "sentRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(worker, "deadRetention", Duration.ofDays(30));
+        return worker;
+    }
+
+    private static JavaMailSenderImpl smtp(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+
+        Properties properties = new Properties();
+        properties.put("mail.from", "noreply@volunteerhub.test");
+        properties.put("mail.smtp.connectiontimeout", "2000");
+        mailSender.setJavaMailProperties(properties);
+        return mailSender;
+    }
+
+    private static void insert(long emailId, String status, int ageDays) {
+        jdbcTemplate.update("""
+                        INSERT INTO email_outbox (email_id, recipient, subject, body, status, created_at)
+                        VALUES (?, ?, ?, ?, ?, now() - make_interval(days => ?))
+                        """,
+                emailId, "user" + emailId + "@volunteerhub.test", "Subject " + emailId, "<p>body</p>", status, ageDays);
+    }
+
+    private static Map<String, Object> row(long emailId) {
+        return jdbcTemplate.queryForMap("SELECT * FROM email_outbox WHERE email_id = ?", emailId);
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
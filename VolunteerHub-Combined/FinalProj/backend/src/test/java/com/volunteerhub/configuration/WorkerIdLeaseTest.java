@@ -0,0 +1,255 @@
+package com.volunteerhub.configuration;
+
+import com.volunteerhub.ultis.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkerIdLeaseTest {
+    private static final long TTL_MS = 30_000L;
+    private static final long RENEW_MS = 10_000L;
+
+    private FakeRedis redis;
+    private StringRedisTemplate template;
+
+    @BeforeEach
+    void setUp() {
+        redis = new FakeRedis();
+        template = redis.template();
+    }
+
+    @Test
+    void acquireLeasesFreeSlot() {
+        WorkerIdLease lease = lease(1, 1);
+        lease.acquire();
+
+        assertTrue(lease.getSlot() >= 0 && lease.getSlot() < 4);
+        assertEquals(lease.getSlot(), (lease.getDatacenterId() << 1) | lease.getWorkerId());
+        assertNotNull(redis.get(key(lease.getSlot())));
+    }
+
+    @Test
+    void acquireFailsWhenAllSlotsTaken() {
+        redis.set(key(0), "other", null);
+        WorkerIdLease lease = lease(0, 0);
+
+        assertThrows(IllegalStateException.class, lease::acquire);
+    }
+
+    @Test
+    void renewExtendsLease() {
+        WorkerIdLease lease = lease(1, 1);
+        List<Boolean> changes = listen(lease);
+        lease.acquire();
+
+        redis.advance(TTL_MS - 5_000);
+        lease.renew();
+        redis.advance(TTL_MS - 5_000);
+
+        assertNotNull(redis.get(key(lease.getSlot())));
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void renewRecoversExpiredSlotWhenStillFree() {
+        WorkerIdLease lease = lease(1, 1);
+        List<Boolean> changes = listen(lease);
+        lease.acquire();
+        int slot = lease.getSlot();
+
+        redis.advance(TTL_MS + 1);
+        lease.renew();
+
+        assertEquals(slot, lease.getSlot());
+        assertNotNull(redis.get(key(slot)));
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void renewMovesToFreeSlotAfterTakeover() {
+        // 2 slot, slot còn lại bị chiếm để node B chắc chắn lấy đúng slot của A sau khi hết hạn
+        WorkerIdLease a = lease(1, 0);
+        a.acquire();
+        int slotA = a.getSlot();
+        redis.set(key(1 - slotA), "dummy", null);
+
+        SnowflakeIdGenerator generator = new IdGeneratorConfiguration().snowflakeIdGenerator(a, 1, 0);
+        List<Boolean> changes = listen(a, generator);
+
+        redis.advance(TTL_MS + 1);
+        WorkerIdLease b = lease(1, 0);
+        b.acquire();
+        assertEquals(slotA, b.getSlot());
+
+        // không còn slot trống: A dừng cấp id
+        a.renew();
+        assertEquals(List.of(false), changes);
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        // slot kia được trả: A chuyển sang đó và cấp id tiếp với workerId mới
+        redis.delete(key(1 - slotA));
+        a.renew();
+
+        assertEquals(List.of(false, true), changes);
+        assertEquals(1 - slotA, a.getSlot());
+        assertNotEquals(a.getSlot(), b.getSlot());
+        long id = generator.nextId();
+        assertEquals(a.getWorkerId(), (id >>> 12) & 1);
+    }
+
+    @Test
+    void validUntilEndsOneRenewIntervalBeforeKeyExpiry() {
+        WorkerIdLease lease = lease(1, 1);
+        List<Long> extensions = new ArrayList<>();
+        lease.onExtend(extensions::add);
+
+        long before = System.currentTimeMillis();
+        lease.acquire();
+        lease.renew();
+        long after = System.currentTimeMillis();
+
+        assertEquals(2, extensions.size());
+        for (long validUntil : extensions) {
+            assertTrue(validUntil >= before + TTL_MS - RENEW_MS && validUntil <= after + TTL_MS - RENEW_MS);
+        }
+        assertEquals(extensions.get(1), lease.getValidUntil());
+    }
+
+    @Test
+    void generatorStopsAtValidUntilWithoutRenew() {
+        WorkerIdLease lease = lease(1, 1);
+        lease.acquire();
+        SnowflakeIdGenerator generator = new IdGeneratorConfiguration().snowflakeIdGenerator(lease, 1, 1);
+        assertDoesNotThrow(generator::nextId);
+
+        // renew() không chạy (treo chờ Redis): generator tự dừng khi tới hạn
+        generator.leaseUntil(System.currentTimeMillis());
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void renewTimeoutMustBeShorterThanRenewInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new WorkerIdLease(template, 1, 1, TTL_MS, RENEW_MS, Duration.ofSeconds(60)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WorkerIdLease(template, 1, 1, TTL_MS, TTL_MS, Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void releaseDeletesOnlyOwnKey() {
+        WorkerIdLease a = lease(0, 0);
+        a.acquire();
+        a.release();
+        assertNull(redis.get(key(0)));
+
+        a.acquire();
+        redis.advance(TTL_MS + 1);
+        WorkerIdLease b = lease(0, 0);
+        b.acquire();
+
+        // lease của A đã bị B giành: release của A không được xoá key của B
+        a.release();
+        assertNotNull(redis.get(key(0)));
+    }
+
+    private WorkerIdLease lease(int workerIdBits, int datacenterIdBits) {
+        return new WorkerIdLease(template, workerIdBits, datacenterIdBits, TTL_MS, RENEW_MS, Duration.ofSeconds(5));
+    }
+
+    private static List<Boolean> listen(WorkerIdLease lease) {
+        List<Boolean> changes = new ArrayList<>();
+        lease.onChange(changes::add);
+        return changes;
+    }
+
+    // giữ listener của IdGeneratorConfiguration, ghi thêm các lần đổi trạng thái
+    private static List<Boolean> listen(WorkerIdLease lease, SnowflakeIdGenerator generator) {
+        List<Boolean> changes = new ArrayList<>();
+        lease.onChange(held -> {
+            changes.add(held);
+            if (held) {
+                generator.reassign(lease.getWorkerId(), lease.getDatacenterId());
+                generator.resume();
+            } else {
+                generator.suspend();
+            }
+        });
+        return changes;
+    }
+
+    private static String key(int slot) {
+        return "snowflake:worker:" + slot;
+    }
+
+    /**
+     * Redis trong bộ nhớ với đồng hồ điều khiển được, đủ cho SET NX PX và hai script của WorkerIdLease.
+     */
+    private static class FakeRedis {
+        private final Map<String, String> values = new HashMap<>();
+        private final Map<String, Long> expiresAt = new HashMap<>();
+        private long now = 0L;
+
+        @SuppressWarnings("unchecked")
+        StringRedisTemplate template() {
+            StringRedisTemplate template = mock(StringRedisTemplate.class);
+            ValueOperations<String, String> ops = mock(ValueOperations.class);
+            when(template.opsForValue()).thenReturn(ops);
+
+            when(ops.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> {
+                String key = invocation.getArgument(0);
+                if (get(key) != null) return false;
+                set(key, invocation.getArgument(1), invocation.<Duration>getArgument(2).toMillis());
+                return true;
+            });
+
+            when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+                RedisScript<?> script = invocation.getArgument(0);
+                String key = invocation.<List<String>>getArgument(1).get(0);
+                String owner = invocation.getArgument(2);
+                if (!owner.equals(get(key))) return 0L;
+
+                if (script.getScriptAsString().contains("PEXPIRE")) {
+                    expiresAt.put(key, now + Long.parseLong(invocation.getArgument(3)));
+                } else {
+                    delete(key);
+                }
+                return 1L;
+            });
+            return template;
+        }
+
+        String get(String key) {
+            Long expiry = expiresAt.get(key);
+            if (expiry != null && expiry <= now) delete(key);
+            return values.get(key);
+        }
+
+        void set(String key, String value, Long ttlMs) {
+            values.put(key, value);
+            if (ttlMs != null) expiresAt.put(key, now + ttlMs);
+            else expiresAt.remove(key);
+        }
+
+        void delete(String key) {
+            values.remove(key);
+            expiresAt.remove(key);
+        }
+
+        void advance(long millis) {
+            now += millis;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.volunteerhub.ultis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 50_000;
+
+    @Test
+    void idsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = generator(12, null, null);
+
+        List<long[]> results = runConcurrently(() -> {
+            long[] ids = new long[PER_THREAD];
+            for (int i = 0; i < PER_THREAD; i++) {
+                ids[i] = generator.nextId();
+            }
+            return ids;
+        });
+
+        Set<Long> all = new HashSet<>();
+        for (long[] ids : results) {
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) assertTrue(ids[i] > ids[i - 1], "ids of one thread must be increasing");
+                assertTrue(all.add(ids[i]), "duplicate id " + ids[i]);
+            }
+        }
+        assertEquals(THREADS * PER_THREAD, all.size());
+    }
+
+    @Test
+    void nextIdsDoNotOverlapSingleIds() throws Exception {
+        SnowflakeIdGenerator generator = generator(12, null, null);
+
+        List<long[]> results = runConcurrently(() -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                long[] batch = generator.nextIds(100);
+                for (int j = 1; j < batch.length; j++) {
+                    assertEquals(batch[j - 1] + 1, batch[j], "batch must be contiguous");
+                }
+                for (long id : batch) ids.add(id);
+                ids.add(generator.nextId());
+            }
+            return ids.stream().mapToLong(Long::longValue).toArray();
+        });
+
+        Set<Long> all = new HashSet<>();
+        for (long[] ids : results) {
+            for (long id : ids) assertTrue(all.add(id), "duplicate id " + id);
+        }
+        assertEquals(THREADS * 500 * 101, all.size());
+    }
+
+    @Test
+    void nextIdsRejectsSizeOutsideSequenceRange() {
+        SnowflakeIdGenerator generator = generator(12, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> generator.nextIds(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.nextIds(4097));
+        assertEquals(4096, generator.nextIds(4096).length);
+    }
+
+    @Test
+    void sequenceExhaustionBorrowsNextMillisecond() {
+        AtomicLong time = new AtomicLong(1_000_000L);
+        // 2 bit sequence: 4 id mỗi millisecond, đồng hồ đứng yên
+        SnowflakeIdGenerator generator = generator(2, null, time::get);
+
+        long previous = -1;
+        for (int i = 0; i < 40; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        // 40 id / 4 mỗi ms: đã mượn tới millisecond thứ 10
+        assertEquals(1_000_009L, timestampOf(previous, 2));
+    }
+
+    @Test
+    void sequenceExhaustionWaitsForClockWithoutTolerance() {
+        SnowflakeIdGenerator generator = generator(2, 0L, null);
+
+        long previous = -1;
+        for (int i = 0; i < 200; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(timestampOf(id, 2) <= System.currentTimeMillis(), "must not run ahead of the clock");
+            previous = id;
+        }
+    }
+
+    @Test
+    void clockRollbackWithinToleranceKeepsIncreasing() {
+        AtomicLong time = new AtomicLong(1_000_000L);
+        SnowflakeIdGenerator generator = generator(12, 100L, time::get);
+
+        long before = generator.nextId();
+        time.addAndGet(-50);
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+        assertEquals(1_000_000L, timestampOf(after, 12));
+    }
+
+    @Test
+    void clockRollbackBeyondToleranceThrows() {
+        AtomicLong time = new AtomicLong(1_000_000L);
+        SnowflakeIdGenerator generator = generator(12, 100L, time::get);
+
+        generator.nextId();
+        time.addAndGet(-101);
+
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        // đồng hồ chạy lại qua mốc cũ thì cấp id bình thường
+        time.addAndGet(102);
+        assertEquals(1_000_001L, timestampOf(generator.nextId(), 12));
+    }
+
+    @Test
+    void zeroToleranceRejectsAnyRollback() {
+        AtomicLong time = new AtomicLong(1_000_000L);
+        SnowflakeIdGenerator generator = generator(12, 0L, time::get);
+
+        generator.nextId();
+        time.decrementAndGet();
+
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void unsetOrNegativeToleranceUsesDefault() {
+        for (Long tolerance : new Long[]{null, -1L}) {
+            AtomicLong time = new AtomicLong(1_000_000L);
+            SnowflakeIdGenerator generator = generator(12, tolerance, time::get);
+
+            generator.nextId();
+            time.addAndGet(-10_000);
+            assertDoesNotThrow(generator::nextId);
+
+            time.decrementAndGet();
+            assertThrows(IllegalStateException.class, generator::nextId);
+        }
+    }
+
+    @Test
+    void suspendedGeneratorRefusesIds() {
+        SnowflakeIdGenerator generator = generator(12, null, null);
+
+        generator.suspend();
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        generator.resume();
+        assertDoesNotThrow(generator::nextId);
+    }
+
+    @Test
+    void idsStopAtLeaseDeadline() {
+        AtomicLong time = new AtomicLong(1_000_000L);
+        SnowflakeIdGenerator generator = generator(12, null, time::get);
+        generator.leaseUntil(1_000_010L);
+
+        assertDoesNotThrow(generator::nextId);
+        time.set(1_000_010L);
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        generator.leaseUntil(1_000_020L);
+        assertEquals(1_000_010L, timestampOf(generator.nextId(), 12));
+    }
+
+    @Test
+    void borrowedMillisecondCannotPassLeaseDeadline() {
+        AtomicLong time = new AtomicLong(1_000_000L);
+        // 4 id mỗi millisecond, đồng hồ đứng yên: id thứ 5 phải mượn 1_000_001 = đúng hạn lease
+        SnowflakeIdGenerator generator = generator(2, null, time::get);
+        generator.leaseUntil(1_000_001L);
+
+        for (int i = 0; i < 4; i++) generator.nextId();
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    // startEpoch = 0 để timestamp trong id chính là giá trị đồng hồ
+    private static SnowflakeIdGenerator generator(long sequenceBits, Long maxBackwardMillis,
+                                                  LongSupplier clock) {
+        return SnowflakeIdGenerator.builder()
+                .workerIdBits(5)
+                .datacenterIdBits(5)
+                .sequenceBits(sequenceBits)
+                .workerId(3)
+                .datacenterId(1)
+                .startEpoch(0L)
+                .maxBackwardMillis(maxBackwardMillis)
+                .clock(clock)
+                .build();
+    }
+
+    private static long timestampOf(long id, long sequenceBits) {
+        return id >>> (sequenceBits + 10);
+    }
+
+    private static List<long[]> runConcurrently(Callable<long[]> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            List<long[]> results = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}